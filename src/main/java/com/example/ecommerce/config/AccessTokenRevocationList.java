@@ -0,0 +1,156 @@
+package com.example.ecommerce.config;
+
+import com.example.ecommerce.model.entity.RevokedAccessToken;
+import com.example.ecommerce.repository.RevokedAccessTokenRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Revoked access token ids (jti) checked on every authenticated request. A Bloom filter answers the
+ * common "not revoked" case without touching the exact set; the exact set removes false positives and
+ * drops entries once the token has expired. Revocations are persisted to revoked_access_tokens so they
+ * survive restarts and reach the other instances on the next sync.
+ */
+@Slf4j
+@Component
+public class AccessTokenRevocationList {
+
+    private static final int PURGE_BATCH_SIZE = 1000;
+
+    private final RevokedAccessTokenRepository revokedAccessTokenRepository;
+    private final int expectedInsertions;
+    private final double falsePositiveRate;
+
+    private final Map<String, Long> revoked = new ConcurrentHashMap<>();
+    private volatile BloomFilter bloomFilter;
+    // the filter sync is filling, guarded by this; revocations made meanwhile go into it as well
+    private BloomFilter rebuilding;
+    // one sync at a time, without holding up revocations
+    private final Object syncLock = new Object();
+
+    public AccessTokenRevocationList(RevokedAccessTokenRepository revokedAccessTokenRepository,
+                                     @Value("${app.jwt.revocation.expected-insertions:100000}") int expectedInsertions,
+                                     @Value("${app.jwt.revocation.false-positive-rate:0.01}") double falsePositiveRate) {
+        this.revokedAccessTokenRepository = revokedAccessTokenRepository;
+        this.expectedInsertions = expectedInsertions;
+        this.falsePositiveRate = falsePositiveRate;
+        this.bloomFilter = new BloomFilter(expectedInsertions, falsePositiveRate);
+    }
+
+    public boolean isRevoked(String jti) {
+        if (jti == null || !bloomFilter.mightContain(jti)) {
+            return false;
+        }
+        Long expiresAt = revoked.get(jti);
+        return expiresAt != null && expiresAt > System.currentTimeMillis();
+    }
+
+    public void revoke(String jti, Date expiration) {
+        if (jti == null || expiration == null || expiration.getTime() <= System.currentTimeMillis()) {
+            return;
+        }
+        synchronized (this) {
+            revoked.put(jti, expiration.getTime());
+            bloomFilter.put(jti);
+            if (rebuilding != null) {
+                rebuilding.put(jti);
+            }
+        }
+        revokedAccessTokenRepository.insertIgnore(jti,
+                LocalDateTime.ofInstant(expiration.toInstant(), ZoneId.systemDefault()));
+    }
+
+    /**
+     * Picks up revocations made by other instances, forgets expired tokens and rebuilds the filter
+     * so it never fills up with dead entries. The database work and the rebuild run without the lock
+     * revocations take; only the swap to the new filter holds it.
+     */
+    @Scheduled(fixedDelayString = "${app.jwt.revocation.sync-ms:30000}")
+    public void sync() {
+        synchronized (syncLock) {
+            long now = System.currentTimeMillis();
+            try {
+                for (RevokedAccessToken token : revokedAccessTokenRepository.findByExpiresAtAfter(LocalDateTime.now())) {
+                    revoked.putIfAbsent(token.getJti(),
+                            token.getExpiresAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+                }
+                while (revokedAccessTokenRepository.deleteExpiredBatch(LocalDateTime.now(), PURGE_BATCH_SIZE) == PURGE_BATCH_SIZE) {
+                    log.debug("Purged a batch of expired revoked access tokens");
+                }
+            } catch (Exception e) {
+                log.warn("Cannot sync revoked access tokens: {}", e.getMessage());
+            }
+
+            revoked.values().removeIf(expiresAt -> expiresAt <= now);
+            BloomFilter rebuilt = new BloomFilter(Math.max(expectedInsertions, revoked.size() * 2), falsePositiveRate);
+            synchronized (this) {
+                rebuilding = rebuilt;
+            }
+            revoked.keySet().forEach(rebuilt::put);
+            synchronized (this) {
+                bloomFilter = rebuilt;
+                rebuilding = null;
+            }
+        }
+    }
+
+    private static final class BloomFilter {
+
+        private final AtomicLongArray bits;
+        private final long numBits;
+        private final int numHashes;
+
+        BloomFilter(int expectedInsertions, double falsePositiveRate) {
+            long m = (long) Math.ceil(-expectedInsertions * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+            this.numBits = Math.max(64, m);
+            this.numHashes = Math.max(1, (int) Math.round((double) numBits / expectedInsertions * Math.log(2)));
+            this.bits = new AtomicLongArray((int) ((numBits + 63) / 64));
+        }
+
+        void put(String value) {
+            long hash1 = hash(value);
+            long hash2 = mix(hash1) | 1;
+            for (int i = 0; i < numHashes; i++) {
+                long bit = Math.floorMod(hash1 + i * hash2, numBits);
+                bits.getAndAccumulate((int) (bit >>> 6), 1L << bit, (current, mask) -> current | mask);
+            }
+        }
+
+        boolean mightContain(String value) {
+            long hash1 = hash(value);
+            long hash2 = mix(hash1) | 1;
+            for (int i = 0; i < numHashes; i++) {
+                long bit = Math.floorMod(hash1 + i * hash2, numBits);
+                if ((bits.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        // 64-bit FNV-1a
+        private static long hash(String value) {
+            long hash = 0xcbf29ce484222325L;
+            for (int i = 0; i < value.length(); i++) {
+                hash ^= value.charAt(i);
+                hash *= 0x100000001b3L;
+            }
+            return hash;
+        }
+
+        private static long mix(long z) {
+            z = (z ^ (z >>> 33)) * 0xff51afd7ed558ccdL;
+            z = (z ^ (z >>> 33)) * 0xc4ceb9fe1a85ec53L;
+            return z ^ (z >>> 33);
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.ecommerce.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.util.Arrays;
+
+/**
+ * Picks the BCrypt work factor for the hardware we are running on. The cost of one hash is measured at
+ * the minimum strength and, since every extra round doubles it, the highest strength that still fits the
+ * latency budget is derived from that measurement.
+ */
+@Slf4j
+final class BCryptWorkFactorCalibrator {
+
+    private static final int SAMPLES = 3;
+
+    private BCryptWorkFactorCalibrator() {
+    }
+
+    static int calibrate(long targetMs, int minStrength, int maxStrength) {
+        BCryptPasswordEncoder probe = new BCryptPasswordEncoder(minStrength);
+        // first run pays for class loading and JIT, it is not counted
+        probe.encode("calibration-warmup");
+
+        long[] samples = new long[SAMPLES];
+        for (int i = 0; i < SAMPLES; i++) {
+            long start = System.nanoTime();
+            probe.encode("calibration-sample-" + i);
+            samples[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(samples);
+        double measuredMs = Math.max(samples[SAMPLES / 2] / 1_000_000.0, 0.01);
+
+        int strength = minStrength;
+        while (strength < maxStrength && measuredMs * (1L << (strength + 1 - minStrength)) <= targetMs) {
+            strength++;
+        }
+
+        log.info("BCrypt calibrated: strength {} measured {} ms, chose strength {} for a {} ms budget",
+                minStrength, String.format("%.1f", measuredMs), strength, targetMs);
+        return strength;
+    }
+}
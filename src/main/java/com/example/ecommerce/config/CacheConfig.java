@@ -0,0 +1,87 @@
+package com.example.ecommerce.config;
+
+import com.example.ecommerce.service.cache.CatalogCacheLoader;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Catalog read caches. Every cache is size and TTL bounded and records stats, so the actuator publishes
+ * cache.gets (hit/miss) and cache.evictions for each of them.
+ * <p>
+ * Cached service methods use {@code @Cacheable(sync = true)}: concurrent misses for the same key wait
+ * for a single load instead of each querying the database. Entries older than the refresh age are
+ * served stale while one background reload replaces them, so a hot key never expires under load.
+ */
+@Configuration
+public class CacheConfig {
+
+    @Bean
+    public CacheManager cacheManager(CatalogCacheLoader loader,
+                                     ThreadPoolExecutor cacheRefreshExecutor,
+                                     @Value("${app.cache.products.maximum-size:10000}") long productsMaximumSize,
+                                     @Value("${app.cache.products.ttl:10m}") Duration productsTtl,
+                                     @Value("${app.cache.products.refresh-after:2m}") Duration productsRefresh,
+                                     @Value("${app.cache.categories.maximum-size:100}") long categoriesMaximumSize,
+                                     @Value("${app.cache.categories.ttl:30m}") Duration categoriesTtl,
+                                     @Value("${app.cache.categories.refresh-after:5m}") Duration categoriesRefresh,
+                                     @Value("${app.cache.popular.ttl:1m}") Duration popularTtl) {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+        cacheManager.setAllowNullValues(false);
+        // only the caches registered below exist, an unknown cache name is a programming error
+        cacheManager.setCacheNames(List.of());
+        cacheManager.registerCustomCache(CacheNames.PRODUCTS,
+                caffeine(productsMaximumSize, productsTtl, productsRefresh, cacheRefreshExecutor)
+                        .build(loader::loadProduct));
+        cacheManager.registerCustomCache(CacheNames.PRODUCTS_BY_NAME,
+                caffeine(productsMaximumSize, productsTtl, productsRefresh, cacheRefreshExecutor)
+                        .build(loader::loadProductByName));
+        cacheManager.registerCustomCache(CacheNames.CATEGORIES,
+                caffeine(categoriesMaximumSize, categoriesTtl, categoriesRefresh, cacheRefreshExecutor)
+                        .build(loader::loadCategories));
+        cacheManager.registerCustomCache(CacheNames.CATEGORY_BY_ID,
+                caffeine(categoriesMaximumSize, categoriesTtl, categoriesRefresh, cacheRefreshExecutor)
+                        .build(loader::loadCategory));
+        // the ranking is already in memory, this only spares loading the same products on every request
+        cacheManager.registerCustomCache(CacheNames.POPULAR_PRODUCTS,
+                Caffeine.newBuilder()
+                        .maximumSize(16)
+                        .expireAfterWrite(popularTtl)
+                        .recordStats()
+                        .build());
+        return cacheManager;
+    }
+
+    /**
+     * Background reloads share one small pool so they never take more than a slice of the connection
+     * pool. When it is saturated the reload is dropped and the stale entry is served a little longer.
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ThreadPoolExecutor cacheRefreshExecutor(@Value("${app.cache.refresh-pool.size:1}") int poolSize,
+                                                   @Value("${app.cache.refresh-pool.queue-capacity:256}") int queueCapacity) {
+        return new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                new CustomizableThreadFactory("cache-refresh-"),
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    private Caffeine<Object, Object> caffeine(long maximumSize, Duration ttl, Duration refreshAfter,
+                                              ThreadPoolExecutor executor) {
+        return Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .refreshAfterWrite(refreshAfter)
+                .executor(executor)
+                .recordStats();
+    }
+}
@@ -0,0 +1,14 @@
+package com.example.ecommerce.config;
+
+public final class CacheNames {
+
+    public static final String PRODUCTS = "products";
+    public static final String PRODUCTS_BY_NAME = "productsByName";
+    public static final String CATEGORIES = "categories";
+    public static final String CATEGORY_BY_ID = "categoryById";
+    public static final String POPULAR_PRODUCTS = "popularProducts";
+
+    private CacheNames() {
+        // Utility class
+    }
+}
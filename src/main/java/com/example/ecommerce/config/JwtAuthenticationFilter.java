@@ -1,24 +1,26 @@
 package com.example.ecommerce.config;
 
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
-import jakarta.servlet.http.Cookie;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpHeaders;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
-import org.springframework.util.StringUtils;
 import org.springframework.web.filter.OncePerRequestFilter;
-import org.springframework.web.util.WebUtils;
 
 import java.io.IOException;
+import java.util.List;
 
 @Slf4j
 @Component
@@ -27,6 +29,12 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtUtil jwtUtil;
     private final UserDetailsService userDetailsService;
+    private final TokenEpochRegistry tokenEpochRegistry;
+    private final AccessTokenRevocationList revocationList;
+
+    // build the principal from the verified claims instead of loading the user on every request
+    @Value("${app.jwt.stateless-principal:true}")
+    private boolean statelessPrincipal;
 
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
@@ -38,15 +46,20 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             } else {
                 log.debug("JWT found (length={}): [redacted]", jwt.length());
             }
-            if (jwt != null && jwtUtil.validateToken(jwt)) {
-                String username = jwtUtil.getUsername(jwt);
-                UserDetails userDetails = userDetailsService.loadUserByUsername(username);
-                UsernamePasswordAuthenticationToken authentication =
-                        new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
-                authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-                SecurityContextHolder.getContext().setAuthentication(authentication);
-                log.debug("Authentication set for user: {}", username);
-
+            Claims claims = jwt != null ? jwtUtil.getValidClaims(jwt) : null;
+            if (claims != null && claims.getSubject() != null) {
+                String username = claims.getSubject();
+                if (tokenEpochRegistry.isRevoked(username, claims.getIssuedAt())
+                        || revocationList.isRevoked(claims.getId())) {
+                    log.debug("Rejected revoked token for user: {}", username);
+                } else {
+                    UserDetails userDetails = loadPrincipal(claims);
+                    UsernamePasswordAuthenticationToken authentication =
+                            new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
+                    authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+                    SecurityContextHolder.getContext().setAuthentication(authentication);
+                    log.debug("Authentication set for user: {}", username);
+                }
             }
         }
         catch (Exception e) {
@@ -55,15 +68,18 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         chain.doFilter(request, response);
     }
 
-    public String tokenExtractor(HttpServletRequest request) {
-        Cookie cookie = WebUtils.getCookie(request, "access_token");
-        if (cookie != null && StringUtils.hasText(cookie.getValue())) {
-            return cookie.getValue().trim();
-        }
-        String header = request.getHeader(HttpHeaders.AUTHORIZATION);
-        if (StringUtils.hasText(header) && header.startsWith("Bearer ")) {
-            return header.substring(7).trim();
+    private UserDetails loadPrincipal(Claims claims) {
+        List<String> roles = jwtUtil.getRoles(claims);
+        if (!statelessPrincipal || roles.isEmpty()) {
+            return userDetailsService.loadUserByUsername(claims.getSubject());
         }
-        return null;
+        return User.withUsername(claims.getSubject())
+                .password("")
+                .authorities(roles.stream().map(role -> new SimpleGrantedAuthority("ROLE_" + role)).toList())
+                .build();
+    }
+
+    public String tokenExtractor(HttpServletRequest request) {
+        return jwtUtil.resolveToken(request);
     }
 }
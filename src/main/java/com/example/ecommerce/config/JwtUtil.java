@@ -1,51 +1,50 @@
 package com.example.ecommerce.config;
 
 import io.jsonwebtoken.*;
-import io.jsonwebtoken.io.Decoders;
-import io.jsonwebtoken.security.Keys;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import org.springframework.web.util.WebUtils;
 
-import javax.crypto.SecretKey;
 import java.security.Key;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.UUID;
 import java.util.function.Function;
 
 @Component
+@RequiredArgsConstructor
 public class JwtUtil {
 
-    @Value("${app.jwt.secret}")
-    private String keySecret;
+    private final JwtVerifier jwtVerifier;
+    private final TokenEpochRegistry tokenEpochRegistry;
 
     @Value("${app.jwt.expiration-ms}")
     private  long expirationMs;
 
-    @Value("${app.jwt.refresh-expiration}")
-    private int refreshExpirationMs;
 
 
 
 
     private Key getSigningKey() {
-        byte[] keyBytes = Decoders.BASE64.decode(keySecret);
-        return Keys.hmacShaKeyFor(keyBytes);
+        return jwtVerifier.getSigningKey();
     }
 
 
-    private Jws<Claims> parseClaims(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token);
+    private Claims parseClaims(String token) {
+        return jwtVerifier.verify(token);
     }
 
     public <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
-        final Claims claims = parseClaims(token).getBody();
+        final Claims claims = parseClaims(token);
         return claimsResolver.apply(claims);
     }
 
@@ -65,9 +64,10 @@ public class JwtUtil {
     public String generateTokenFromUserName(String username) {
         Map<String,Object> claims = new HashMap<>();
         return Jwts.builder()
-                .setSubject(username)
                 .setClaims(claims)
-                .setIssuedAt(new Date(System.currentTimeMillis()))
+                .setSubject(username)
+                .setId(UUID.randomUUID().toString())
+                .setIssuedAt(tokenEpochRegistry.issuedAtFor(username))
                 .setExpiration(new Date(System.currentTimeMillis() + expirationMs))
                 .signWith(getSigningKey(), SignatureAlgorithm.HS256)
                 .compact();
@@ -80,31 +80,42 @@ public class JwtUtil {
         return Jwts.builder()
                 .setClaims(claims)
                 .setSubject(username)
-                .setIssuedAt(new Date())
+                .setId(UUID.randomUUID().toString())
+                .setIssuedAt(tokenEpochRegistry.issuedAtFor(username))
                 .setExpiration(new Date((new Date()).getTime() + expirationMs))
                 .signWith(getSigningKey(), SignatureAlgorithm.HS512)
                 .compact();
     }
 
-    public String generateRefreshTokenFromUsername(String username) {
-        return Jwts.builder()
-                .setSubject(username)
-                .setIssuedAt(new Date())
-                .setExpiration(new Date((new Date()).getTime() + refreshExpirationMs))
-                .signWith(getSigningKey(), SignatureAlgorithm.HS512)
-                .compact();
-    }
-
     public String getUsername(String token) {
-        return parseClaims(token).getBody().getSubject();
+        return parseClaims(token).getSubject();
     }
 
 
     public String getRole(String token) {
-        Object role = parseClaims(token).getBody().get("role");
+        Object role = parseClaims(token).get("role");
         return role != null ? role.toString() : null;
     }
 
+    /**
+     * Parses and verifies the token once, returning its claims or {@code null} when it is invalid.
+     */
+    public Claims getValidClaims(String token) {
+        try {
+            return parseClaims(token);
+        } catch (JwtException | IllegalArgumentException ex) {
+            return null;
+        }
+    }
+
+    public List<String> getRoles(Claims claims) {
+        Object roles = claims.get("roles");
+        if (!(roles instanceof List<?> list)) {
+            return List.of();
+        }
+        return list.stream().map(Object::toString).toList();
+    }
+
     public boolean validateToken(String token) {
         try {
             parseClaims(token);
@@ -123,4 +134,19 @@ public class JwtUtil {
         return extractClaim(token, Claims::getExpiration);
     }
 
+    /**
+     * Access token sent by the client, from the access_token cookie or the Bearer header.
+     */
+    public String resolveToken(HttpServletRequest request) {
+        Cookie cookie = WebUtils.getCookie(request, "access_token");
+        if (cookie != null && StringUtils.hasText(cookie.getValue())) {
+            return cookie.getValue().trim();
+        }
+        String header = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (StringUtils.hasText(header) && header.startsWith("Bearer ")) {
+            return header.substring(7).trim();
+        }
+        return null;
+    }
+
 }
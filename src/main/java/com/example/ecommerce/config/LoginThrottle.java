@@ -0,0 +1,74 @@
+package com.example.ecommerce.config;
+
+import com.example.ecommerce.exception.excptions.TooManyRequestsException;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Fixed-window login throttling in front of the password hashing pool: failed attempts are counted per
+ * account and all attempts per client IP. A window starts with the first attempt and resets when the
+ * counter expires.
+ */
+@Component
+public class LoginThrottle {
+
+    private final Cache<String, AtomicInteger> accountFailures;
+    private final Cache<String, AtomicInteger> ipAttempts;
+    private final int maxAccountFailures;
+    private final int maxIpAttempts;
+    private final Counter accountThrottled;
+    private final Counter ipThrottled;
+
+    public LoginThrottle(MeterRegistry meterRegistry,
+                         @Value("${app.auth.throttle.window-seconds:300}") long windowSeconds,
+                         @Value("${app.auth.throttle.max-account-failures:5}") int maxAccountFailures,
+                         @Value("${app.auth.throttle.max-ip-attempts:30}") int maxIpAttempts) {
+        this.maxAccountFailures = maxAccountFailures;
+        this.maxIpAttempts = maxIpAttempts;
+        this.accountFailures = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofSeconds(windowSeconds))
+                .maximumSize(100_000)
+                .build();
+        this.ipAttempts = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofSeconds(windowSeconds))
+                .maximumSize(100_000)
+                .build();
+        this.accountThrottled = Counter.builder("auth.login.throttled").tag("scope", "account").register(meterRegistry);
+        this.ipThrottled = Counter.builder("auth.login.throttled").tag("scope", "ip").register(meterRegistry);
+    }
+
+    /**
+     * Records a login attempt and rejects it with a 429 when the account or the IP is over its limit.
+     */
+    public void checkAllowed(String email, String ip) {
+        AtomicInteger failures = accountFailures.getIfPresent(key(email));
+        if (failures != null && failures.get() >= maxAccountFailures) {
+            accountThrottled.increment();
+            throw new TooManyRequestsException("Too many failed login attempts, please try again later");
+        }
+        if (ip != null && ipAttempts.get(ip, k -> new AtomicInteger()).incrementAndGet() > maxIpAttempts) {
+            ipThrottled.increment();
+            throw new TooManyRequestsException("Too many login attempts, please try again later");
+        }
+    }
+
+    public void recordFailure(String email) {
+        accountFailures.get(key(email), k -> new AtomicInteger()).incrementAndGet();
+    }
+
+    public void recordSuccess(String email) {
+        accountFailures.invalidate(key(email));
+    }
+
+    private String key(String email) {
+        return email.trim().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.ecommerce.config;
+
+import com.example.ecommerce.model.entity.Product;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Moves the product id sequence past every product id already in use. Rows written while the table
+ * used an IDENTITY column have ids the sequence table knows nothing about, and pooled ids can start up
+ * to one allocation block below the stored value, so it is raised to the highest id plus a full block.
+ * <p>
+ * Runs once the schema is up to date and before the application serves any request; it only ever
+ * raises the value, so restarts and other instances leave it alone.
+ */
+@Slf4j
+@Component
+// the schema update that creates the sequence table runs with the entity manager factory
+@DependsOn("entityManagerFactory")
+public class ProductIdSequenceInitializer {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public ProductIdSequenceInitializer(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @PostConstruct
+    public void initialize() {
+        Long maxId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM products", Long.class);
+        long floor = (maxId == null ? 0 : maxId) + Product.ID_ALLOCATION_SIZE + 1;
+
+        Long rows = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + Product.ID_SEQUENCE, Long.class);
+        if (rows == null || rows == 0) {
+            jdbcTemplate.update("INSERT INTO " + Product.ID_SEQUENCE + " (next_val) VALUES (?)", floor);
+            log.info("Initialized {} at {}", Product.ID_SEQUENCE, floor);
+        } else if (jdbcTemplate.update("UPDATE " + Product.ID_SEQUENCE + " SET next_val = ? WHERE next_val < ?",
+                floor, floor) > 0) {
+            log.info("Raised {} to {} past existing ids", Product.ID_SEQUENCE, floor);
+        }
+    }
+}
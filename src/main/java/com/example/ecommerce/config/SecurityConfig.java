@@ -1,6 +1,7 @@
 package com.example.ecommerce.config;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod; // استيراد مهم
@@ -12,11 +13,14 @@ import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 import org.springframework.web.cors.CorsConfigurationSource;
 
+import java.util.Map;
+
 @Configuration
 @EnableMethodSecurity
 @RequiredArgsConstructor
@@ -49,8 +53,22 @@ public class SecurityConfig {
         return cfg.getAuthenticationManager();
     }
 
+    /**
+     * Delegating encoder so stored hashes can be upgraded on login when the work factor or the
+     * algorithm changes. Hashes written before the {id} prefix was introduced are plain BCrypt.
+     */
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(@Value("${app.auth.bcrypt.strength:0}") int fixedStrength,
+                                           @Value("${app.auth.bcrypt.target-ms:250}") long targetMs,
+                                           @Value("${app.auth.bcrypt.min-strength:10}") int minStrength,
+                                           @Value("${app.auth.bcrypt.max-strength:14}") int maxStrength) {
+        int strength = fixedStrength > 0
+                ? fixedStrength
+                : BCryptWorkFactorCalibrator.calibrate(targetMs, minStrength, maxStrength);
+
+        DelegatingPasswordEncoder encoder = new DelegatingPasswordEncoder("bcrypt",
+                Map.of("bcrypt", new BCryptPasswordEncoder(strength)));
+        encoder.setDefaultPasswordEncoderForMatches(new BCryptPasswordEncoder(strength));
+        return encoder;
     }
 }
\ No newline at end of file
@@ -0,0 +1,85 @@
+package com.example.ecommerce.config;
+
+import com.example.ecommerce.model.entity.TokenEpoch;
+import com.example.ecommerce.repository.TokenEpochRepository;
+import com.example.ecommerce.util.AfterCommit;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-user "token epoch" table used to revoke access tokens without a user lookup per request.
+ * A token is rejected when it was issued before the epoch of its subject. The table only holds
+ * users that have an epoch set, and it is reloaded from the {@code token_epochs} table in the background.
+ * Epochs live in their own table so revoking the tokens of a deleted user survives the delete.
+ * <p>
+ * A token's {@code iat} has whole-second precision, so an epoch is always the start of the second after
+ * the revocation: every token issued up to the revocation is rejected, and tokens issued on this instance
+ * in the rest of that second get {@link #issuedAtFor} the epoch itself rather than an {@code iat} that
+ * would be rejected for their whole lifetime.
+ */
+@Slf4j
+@Component
+public class TokenEpochRegistry {
+
+    private final TokenEpochRepository tokenEpochRepository;
+    private final long tokenLifetimeMs;
+
+    private final Map<String, Long> epochs = new ConcurrentHashMap<>();
+
+    public TokenEpochRegistry(TokenEpochRepository tokenEpochRepository,
+                              @Value("${app.jwt.expiration-ms}") long tokenLifetimeMs) {
+        this.tokenEpochRepository = tokenEpochRepository;
+        this.tokenLifetimeMs = tokenLifetimeMs;
+    }
+
+    public boolean isRevoked(String email, Date issuedAt) {
+        Long epoch = epochs.get(email);
+        if (epoch == null) {
+            return false;
+        }
+        return issuedAt == null || issuedAt.getTime() < epoch;
+    }
+
+    /**
+     * The {@code iat} for a new token of the user: now, or the user's epoch while that is still ahead.
+     */
+    public Date issuedAtFor(String email) {
+        long now = System.currentTimeMillis();
+        Long epoch = epochs.get(email);
+        return new Date(epoch == null ? now : Math.max(now, epoch));
+    }
+
+    /**
+     * Rejects every access token issued to the user up to now. Joins the caller's transaction, and this
+     * instance only starts rejecting once it commits, so a rolled-back delete does not lock the user out.
+     */
+    public void revokeAll(String email) {
+        long epoch = nextSecond(System.currentTimeMillis());
+        tokenEpochRepository.raise(email, epoch);
+        AfterCommit.run(() -> epochs.merge(email, epoch, Math::max));
+    }
+
+    @Scheduled(fixedDelayString = "${app.jwt.epoch-refresh-ms:30000}")
+    public void refresh() {
+        try {
+            long cutoff = System.currentTimeMillis() - tokenLifetimeMs;
+            tokenEpochRepository.deleteOlderThan(cutoff);
+            epochs.values().removeIf(epoch -> epoch < cutoff);
+            for (TokenEpoch row : tokenEpochRepository.findAll()) {
+                epochs.merge(row.getEmail(), row.getEpochMillis(), Math::max);
+            }
+        } catch (Exception e) {
+            log.warn("Cannot refresh token epochs: {}", e.getMessage());
+        }
+    }
+
+    private static long nextSecond(long epochMillis) {
+        return (epochMillis / 1000 + 1) * 1000;
+    }
+}
@@ -38,8 +38,10 @@ public class AuthController {
 
     @PostMapping("/login")
     @PreAuthorize("permitAll()")
-    public ResponseEntity<JwtResponse> login(@Valid @RequestBody UserRequestLogin req,HttpServletResponse httpServletResponse) {
-        return ResponseEntity.ok(authService.login(req,httpServletResponse));
+    public ResponseEntity<JwtResponse> login(@Valid @RequestBody UserRequestLogin req,
+                                             HttpServletRequest httpServletRequest,
+                                             HttpServletResponse httpServletResponse) {
+        return ResponseEntity.ok(authService.login(req, httpServletRequest, httpServletResponse));
     }
 
 
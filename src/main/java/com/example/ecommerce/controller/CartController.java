@@ -1,5 +1,6 @@
 package com.example.ecommerce.controller;
 
+import com.example.ecommerce.model.dto.request.CartBatchRequest;
 import com.example.ecommerce.model.dto.request.CartItemRequest;
 import com.example.ecommerce.model.dto.response.CartResponse;
 import com.example.ecommerce.service.CartService;
@@ -35,6 +36,17 @@ public class CartController {
         return ResponseEntity.ok(cartService.addItemToCart(id, req));
     }
 
+    /**
+     * Applies several add/set/remove operations in order and returns the resulting cart; if one of them
+     * fails, none is applied.
+     */
+    @PatchMapping("/items")
+    @PreAuthorize("hasRole('ADMIN') or #email == authentication.name")
+    public ResponseEntity<CartResponse> applyOperations(@RequestParam String email,
+                                                        @Valid @RequestBody CartBatchRequest req) {
+        return ResponseEntity.ok(cartService.applyOperations(email, req));
+    }
+
     @PutMapping("/items/{productId}")
     @PreAuthorize("hasRole('ADMIN') or #email == authentication.name")
     public ResponseEntity<CartResponse> updateItem(@RequestParam String email,
@@ -1,11 +1,16 @@
 package com.example.ecommerce.controller;
 
 import com.example.ecommerce.model.dto.response.OrderResponse;
+import com.example.ecommerce.model.enums.DataFormat;
 import com.example.ecommerce.service.OrderService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 
@@ -34,4 +39,19 @@ public class OrderController {
     public ResponseEntity<List<OrderResponse>> allOrders() {
         return ResponseEntity.ok(orderService.listAll());
     }
+
+    /**
+     * Streams every row as NDJSON (default) or CSV without loading the table into memory.
+     */
+    @GetMapping("/export")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<StreamingResponseBody> exportOrders(@RequestParam(defaultValue = "NDJSON") DataFormat format) {
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(format.getMediaType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename("orders." + format.getExtension())
+                        .build()
+                        .toString())
+                .body(orderService.exportAll(format));
+    }
 }
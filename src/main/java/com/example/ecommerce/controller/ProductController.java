@@ -1,17 +1,35 @@
 package com.example.ecommerce.controller;
 
+import com.example.ecommerce.model.dto.request.ProductBulkUpdateRequest;
 import com.example.ecommerce.model.dto.request.ProductRequest;
+import com.example.ecommerce.model.dto.request.ProductScrollFilter;
+import com.example.ecommerce.model.dto.response.CursorPage;
+import com.example.ecommerce.model.dto.response.FacetedSearchResponse;
+import com.example.ecommerce.model.dto.response.LowStockItemResponse;
+import com.example.ecommerce.model.dto.response.ProductBulkUpdateResponse;
+import com.example.ecommerce.model.dto.response.ProductImportResponse;
 import com.example.ecommerce.model.dto.response.ProductResponse;
+import com.example.ecommerce.model.dto.response.ProductSummaryResponse;
+import com.example.ecommerce.model.dto.response.SuggestionResponse;
+import com.example.ecommerce.model.enums.DataFormat;
+import com.example.ecommerce.model.enums.ProductSort;
+import com.example.ecommerce.service.ProductImportService;
 import com.example.ecommerce.service.ProductService;
 import com.example.ecommerce.util.MessageResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.InputStream;
 import java.math.BigDecimal;
 import java.util.List;
 
@@ -20,6 +38,7 @@ import java.util.List;
 @RequestMapping("/api/v1/products")
 public class ProductController {
     private final ProductService productService;
+    private final ProductImportService productImportService;
 
 
     @GetMapping("/{id}")
@@ -36,7 +55,7 @@ public class ProductController {
 
     @GetMapping("/search")
 //    @PreAuthorize("isAuthenticated()")
-    public Page<ProductResponse> searchProducts(@RequestParam String name,
+    public Page<ProductSummaryResponse> searchProducts(@RequestParam String name,
                                                 @RequestParam String category,
                                                 @RequestParam(defaultValue = "0") int page,
                                                 @RequestParam(defaultValue = "10") int size) {
@@ -45,22 +64,56 @@ public class ProductController {
 
     @GetMapping("/category/{name}")
 //    @PreAuthorize("isAuthenticated()")
-    public ResponseEntity<List<ProductResponse>> getProductByCategory(@PathVariable String name) {
+    public ResponseEntity<List<ProductSummaryResponse>> getProductByCategory(@PathVariable String name) {
         return ResponseEntity.ok(productService.getProductByCategory(name));
     }
 
     @GetMapping("/all")
 //    @PreAuthorize("isAuthenticated()")
-    public ResponseEntity<List<ProductResponse>> getAllProducts() {
+    public ResponseEntity<List<ProductSummaryResponse>> getAllProducts() {
         return ResponseEntity.ok(productService.getAllProducts());
     }
 
+    /**
+     * Streams every row as NDJSON (default) or CSV without loading the table into memory.
+     */
+    @GetMapping("/export")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<StreamingResponseBody> exportProducts(@RequestParam(defaultValue = "NDJSON") DataFormat format) {
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(format.getMediaType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename("products." + format.getExtension())
+                        .build()
+                        .toString())
+                .body(productService.exportProducts(format));
+    }
+
     @PostMapping
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<ProductResponse> createProduct(@Valid @RequestBody ProductRequest productRequest) {
         return ResponseEntity.ok(productService.createProduct(productRequest));
     }
 
+    /**
+     * Bulk import from a CSV file (header line with the {@link ProductRequest} field names, where
+     * {@code category} may name the category instead of {@code categoryId}) or NDJSON. The file is
+     * imported in the background; poll {@code /import/{jobId}} for progress and rejected rows.
+     */
+    @PostMapping(value = "/import", consumes = {"text/csv", "application/x-ndjson"})
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ProductImportResponse> importProducts(@RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+                                                                InputStream body) {
+        DataFormat format = DataFormat.fromMediaType(MediaType.parseMediaType(contentType));
+        return ResponseEntity.accepted().body(productImportService.submit(body, format));
+    }
+
+    @GetMapping("/import/{jobId}")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ProductImportResponse> getImportStatus(@PathVariable String jobId) {
+        return ResponseEntity.ok(productImportService.getStatus(jobId));
+    }
+
     @DeleteMapping("/{id}")
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<MessageResponse> deleteProduct(@PathVariable Long id) {
@@ -74,9 +127,20 @@ public class ProductController {
         return ResponseEntity.ok(productService.update(id, request));
     }
 
+    /**
+     * Price and stock changes for up to 1000 products at once. Each row may carry the {@code version}
+     * it was read at; rows that cannot be applied come back with status and current values instead of
+     * failing the whole request.
+     */
+    @PatchMapping("/bulk")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ProductBulkUpdateResponse> bulkUpdateProducts(@Valid @RequestBody ProductBulkUpdateRequest request) {
+        return ResponseEntity.ok(productService.bulkUpdate(request));
+    }
+
     @GetMapping("/search/advanced")
 //    @PreAuthorize("isAuthenticated()")
-    public Page<ProductResponse> searchProductsAdvanced(
+    public Page<ProductSummaryResponse> searchProductsAdvanced(
             @RequestParam(required = false) String name,
             @RequestParam(required = false) String category,
             @RequestParam(required = false) BigDecimal minPrice,
@@ -88,18 +152,78 @@ public class ProductController {
                 PageRequest.of(page, size));
     }
 
+    /**
+     * Same filters as {@code /search/advanced}, with category, stock and price-range counts for the
+     * filtered result in the same response. {@code name} is optional here.
+     */
+    @GetMapping("/search/faceted")
+//    @PreAuthorize("isAuthenticated()")
+    public FacetedSearchResponse searchProductsFaceted(
+            @RequestParam(required = false) String name,
+            @RequestParam(required = false) String category,
+            @RequestParam(required = false) BigDecimal minPrice,
+            @RequestParam(required = false) BigDecimal maxPrice,
+            @RequestParam(required = false) Boolean inStock,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "10") int size) {
+        return productService.searchFaceted(name, category, minPrice, maxPrice, inStock,
+                PageRequest.of(page, size));
+    }
+
     @GetMapping("/search/by-name")
 //    @PreAuthorize("isAuthenticated()")
-    public Page<ProductResponse> searchByName(
+    public Page<ProductSummaryResponse> searchByName(
             @RequestParam String name,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size) {
         return productService.searchByName(name, PageRequest.of(page, size));
     }
 
+    @GetMapping("/popular")
+//    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<List<ProductSummaryResponse>> getPopularProducts(
+            @RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(productService.getPopularProducts(limit));
+    }
+
+    @GetMapping("/suggest")
+//    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<List<SuggestionResponse>> suggest(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(productService.suggest(q, limit));
+    }
+
+    /**
+     * Keyset-paginated listing: pass back {@code nextCursor} to continue, the total is only counted when
+     * {@code includeTotal=true}.
+     */
+    @GetMapping("/scroll")
+//    @PreAuthorize("isAuthenticated()")
+    public CursorPage<ProductSummaryResponse> scrollProducts(
+            @RequestParam(required = false) String name,
+            @RequestParam(required = false) String category,
+            @RequestParam(required = false) Long categoryId,
+            @RequestParam(required = false) BigDecimal minPrice,
+            @RequestParam(required = false) BigDecimal maxPrice,
+            @RequestParam(required = false) Boolean inStock,
+            @RequestParam(defaultValue = "ID") ProductSort sort,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "false") boolean includeTotal) {
+        ProductScrollFilter filter = new ProductScrollFilter();
+        filter.setName(name);
+        filter.setCategory(category);
+        filter.setCategoryId(categoryId);
+        filter.setMinPrice(minPrice);
+        filter.setMaxPrice(maxPrice);
+        filter.setInStock(inStock);
+        return productService.scroll(filter, sort, cursor, size, includeTotal);
+    }
+
     @GetMapping("/search/by-price")
 //    @PreAuthorize("isAuthenticated()")
-    public Page<ProductResponse> searchByPriceRange(
+    public Page<ProductSummaryResponse> searchByPriceRange(
             @RequestParam BigDecimal minPrice,
             @RequestParam BigDecimal maxPrice,
             @RequestParam(defaultValue = "0") int page,
@@ -109,7 +233,7 @@ public class ProductController {
 
     @GetMapping("/available")
 //    @PreAuthorize("isAuthenticated()")
-    public Page<ProductResponse> getAvailableProducts(
+    public Page<ProductSummaryResponse> getAvailableProducts(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size) {
         return productService.findAvailableProducts(PageRequest.of(page, size));
@@ -117,17 +241,42 @@ public class ProductController {
 
     @GetMapping("/out-of-stock")
     @PreAuthorize("hasRole('ADMIN')")
-    public Page<ProductResponse> getOutOfStockProducts(
+    public Page<ProductSummaryResponse> getOutOfStockProducts(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size) {
         return productService.findOutOfStockProducts(PageRequest.of(page, size));
     }
 
+    @GetMapping("/out-of-stock/scroll")
+    @PreAuthorize("hasRole('ADMIN')")
+    public CursorPage<ProductSummaryResponse> scrollOutOfStockProducts(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "false") boolean includeTotal) {
+        ProductScrollFilter filter = new ProductScrollFilter();
+        filter.setOutOfStock(true);
+        return productService.scroll(filter, ProductSort.ID, cursor, size, includeTotal);
+    }
+
+    /**
+     * Products at or below their own low-stock threshold ({@code lowStockThreshold}, or the configured
+     * default), lowest stock first. A positive {@code threshold} overrides every product's own threshold.
+     */
     @GetMapping("/low-stock")
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<List<ProductResponse>> getLowStockProducts(
-            @RequestParam(defaultValue = "10") Integer threshold) {
+    public ResponseEntity<List<LowStockItemResponse>> getLowStockProducts(
+            @RequestParam(required = false) Integer threshold) {
         return ResponseEntity.ok(productService.findLowStockProducts(threshold));
     }
 
+    /**
+     * Server-sent events for products entering ({@code entered}), changing within ({@code changed}) or
+     * leaving ({@code cleared}) the low-stock list.
+     */
+    @GetMapping(value = "/low-stock/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @PreAuthorize("hasRole('ADMIN')")
+    public SseEmitter streamLowStockProducts() {
+        return productService.subscribeLowStock();
+    }
+
 }
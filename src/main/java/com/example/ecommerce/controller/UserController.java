@@ -2,13 +2,18 @@ package com.example.ecommerce.controller;
 
 import com.example.ecommerce.model.dto.request.UserRequestUpdate;
 import com.example.ecommerce.model.dto.response.UserResponse;
+import com.example.ecommerce.model.enums.DataFormat;
 import com.example.ecommerce.service.UserService;
 import com.example.ecommerce.util.MessageResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 
@@ -38,6 +43,21 @@ public class UserController {
         return ResponseEntity.ok(userService.getAllUsers());
     }
 
+    /**
+     * Streams every row as NDJSON (default) or CSV without loading the table into memory.
+     */
+    @GetMapping("/users/export")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<StreamingResponseBody> exportUsers(@RequestParam(defaultValue = "NDJSON") DataFormat format) {
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(format.getMediaType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename("users." + format.getExtension())
+                        .build()
+                        .toString())
+                .body(userService.exportUsers(format));
+    }
+
     @DeleteMapping()
     @PreAuthorize("hasRole('ADMIN') or #email == authentication.name")
     public ResponseEntity<MessageResponse> deleteUser(@RequestParam String email) {
@@ -7,6 +7,7 @@ public final class ErrorConstants {
     public static final String FORBIDDEN = "FORBIDDEN";
     public static final String INVALID_CREDENTIALS = "INVALID_CREDENTIALS";
     public static final String AUTHENTICATION_FAILED = "AUTHENTICATION_FAILED";
+    public static final String TOO_MANY_REQUESTS = "TOO_MANY_REQUESTS";
 
     // Resource Management
     public static final String RESOURCE_NOT_FOUND = "RESOURCE_NOT_FOUND";
@@ -33,6 +34,7 @@ public final class ErrorConstants {
     public static final String INTERNAL_SERVER_ERROR = "INTERNAL_SERVER_ERROR";
     public static final String METHOD_NOT_SUPPORTED = "METHOD_NOT_SUPPORTED";
     public static final String ENDPOINT_NOT_FOUND = "ENDPOINT_NOT_FOUND";
+    public static final String SERVICE_UNAVAILABLE = "SERVICE_UNAVAILABLE";
 
     private ErrorConstants() {
         // Utility class
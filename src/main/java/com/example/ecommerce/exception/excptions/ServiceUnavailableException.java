@@ -0,0 +1,13 @@
+package com.example.ecommerce.exception.excptions;
+
+import org.springframework.http.HttpStatus;
+
+public class ServiceUnavailableException extends CustomException {
+    public ServiceUnavailableException(String message) {
+        super(message, HttpStatus.SERVICE_UNAVAILABLE, "SERVICE_UNAVAILABLE");
+    }
+
+    public ServiceUnavailableException(String message, Throwable cause) {
+        super(message, HttpStatus.SERVICE_UNAVAILABLE, "SERVICE_UNAVAILABLE", cause);
+    }
+}
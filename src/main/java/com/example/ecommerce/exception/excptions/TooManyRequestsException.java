@@ -0,0 +1,9 @@
+package com.example.ecommerce.exception.excptions;
+
+import org.springframework.http.HttpStatus;
+
+public class TooManyRequestsException extends CustomException {
+    public TooManyRequestsException(String message) {
+        super(message, HttpStatus.TOO_MANY_REQUESTS, "TOO_MANY_REQUESTS");
+    }
+}
@@ -2,6 +2,7 @@ package com.example.ecommerce.mapper;
 
 import com.example.ecommerce.model.dto.response.CartItemResponse;
 import com.example.ecommerce.model.dto.response.CartResponse;
+import com.example.ecommerce.model.dto.response.ProductResponse;
 import com.example.ecommerce.model.entity.Cart;
 import com.example.ecommerce.model.entity.CartItem;
 
@@ -20,14 +21,26 @@ public class CartMapper {
         return response;
     }
 
-    public static CartResponse toCartResponse(Cart cart) {
-        CartResponse response = new CartResponse();
-        response.setId(cart.getId());
-        response.setUserId(cart.getUser().getId());
+    public static CartItemResponse toCartItemResponse(Long itemId, ProductResponse product, int quantity) {
+        CartItemResponse response = new CartItemResponse();
+        response.setId(itemId);
+        response.setQuantity(quantity);
+        response.setProduct(product);
+        response.setSubtotal(product.getPrice().multiply(new BigDecimal(quantity)));
+        return response;
+    }
 
+    public static CartResponse toCartResponse(Cart cart) {
         Set<CartItemResponse> itemResponses = cart.getCartItems().stream()
                 .map(CartMapper::toCartItemResponse)
                 .collect(Collectors.toSet());
+        return toCartResponse(cart.getId(), cart.getUser().getId(), itemResponses);
+    }
+
+    public static CartResponse toCartResponse(Long cartId, Long userId, Set<CartItemResponse> itemResponses) {
+        CartResponse response = new CartResponse();
+        response.setId(cartId);
+        response.setUserId(userId);
         response.setItems(itemResponses);
 
         BigDecimal total = itemResponses.stream()
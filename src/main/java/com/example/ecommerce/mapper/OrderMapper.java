@@ -4,9 +4,17 @@ import com.example.ecommerce.model.dto.response.OrderItemResponse;
 import com.example.ecommerce.model.dto.response.OrderResponse;
 import com.example.ecommerce.model.entity.Order;
 import com.example.ecommerce.model.entity.OrderItem;
+import com.example.ecommerce.model.projection.OrderExportRow;
 
 import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 public class OrderMapper {
 
@@ -34,4 +42,61 @@ public class OrderMapper {
         return response;
     }
 
-}
\ No newline at end of file
+    /**
+     * Folds the flat export rows back into one response per order. The rows must arrive grouped by order
+     * id; only the order being assembled is held in memory. Closing the result closes {@code rows}.
+     */
+    public static Stream<OrderResponse> toOrderResponses(Stream<OrderExportRow> rows) {
+        Iterator<OrderExportRow> source = rows.iterator();
+        Iterator<OrderResponse> orders = new Iterator<>() {
+            private OrderExportRow pending;
+
+            @Override
+            public boolean hasNext() {
+                return pending != null || source.hasNext();
+            }
+
+            @Override
+            public OrderResponse next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                OrderExportRow first = pending != null ? pending : source.next();
+                pending = null;
+
+                OrderResponse response = new OrderResponse();
+                response.setId(first.orderId());
+                response.setUserId(first.userId());
+                response.setStatus(first.status());
+                response.setTotalPrice(first.totalPrice());
+                response.setOrderDate(first.orderDate());
+                response.setItems(new HashSet<>());
+                addItem(response, first);
+
+                while (source.hasNext()) {
+                    OrderExportRow row = source.next();
+                    if (!row.orderId().equals(first.orderId())) {
+                        pending = row;
+                        break;
+                    }
+                    addItem(response, row);
+                }
+                return response;
+            }
+        };
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(orders, Spliterator.ORDERED | Spliterator.NONNULL), false)
+                .onClose(rows::close);
+    }
+
+    private static void addItem(OrderResponse response, OrderExportRow row) {
+        if (row.itemId() == null) {
+            return;
+        }
+        OrderItemResponse item = new OrderItemResponse();
+        item.setId(row.itemId());
+        item.setProductName(row.productName());
+        item.setQuantity(row.quantity());
+        item.setPrice(row.price());
+        response.getItems().add(item);
+    }
+}
@@ -4,6 +4,7 @@ import com.example.ecommerce.model.dto.request.ProductRequest;
 import com.example.ecommerce.model.dto.response.ProductResponse;
 import com.example.ecommerce.model.entity.Product;
 import com.example.ecommerce.model.entity.Category;
+import com.example.ecommerce.model.projection.ProductSearchDocument;
 import com.example.ecommerce.util.AssistantHelper;
 
 import java.time.LocalDateTime;
@@ -18,6 +19,7 @@ public class ProductMapper {
         response.setStockQuantity(product.getStockQuantity());
         response.setImageUrl(product.getImageUrl());
         response.setCreatedAt(product.getCreatedAt());
+        response.setLowStockThreshold(product.getLowStockThreshold());
 
         if (product.getCategory() != null) {
             response.setCategory(CategoryMapper.toCategoryResponse(product.getCategory()));
@@ -26,6 +28,18 @@ public class ProductMapper {
         return response;
     }
 
+    public static ProductSearchDocument toSearchDocument(Product product) {
+        Category category = product.getCategory();
+        return new ProductSearchDocument(
+                product.getId(),
+                product.getName(),
+                product.getDescription(),
+                category != null ? category.getId() : null,
+                category != null ? category.getName() : null,
+                product.getPrice(),
+                product.getStockQuantity());
+    }
+
     public static Product toProduct(ProductRequest productRequest, Category category) {
         Product product = new Product();
 
@@ -34,6 +48,7 @@ public class ProductMapper {
         product.setPrice(productRequest.getPrice());
         product.setStockQuantity(productRequest.getStockQuantity());
         product.setImageUrl(AssistantHelper.trimString(productRequest.getImageUrl()));
+        product.setLowStockThreshold(productRequest.getLowStockThreshold());
         product.setCreatedAt(LocalDateTime.now());
 
         product.setCategory(category);
@@ -0,0 +1,36 @@
+package com.example.ecommerce.model.dto.request;
+
+import com.example.ecommerce.model.enums.CartOperationType;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class CartBatchRequest {
+
+    @NotEmpty(message = "At least one operation is required")
+    @Size(max = 100, message = "At most 100 operations per request")
+    private List<@Valid Operation> operations;
+
+    /**
+     * {@code ADD} adds {@code quantity} (at least 1) to the product's line, {@code SET} replaces it
+     * (0 removes the line) and {@code REMOVE} drops the line; {@code quantity} is ignored for REMOVE.
+     */
+    @Data
+    public static class Operation {
+
+        @NotNull(message = "Operation type is required")
+        private CartOperationType op;
+
+        @NotNull(message = "Product ID is required")
+        private Long productId;
+
+        @Min(value = 0, message = "Quantity must be zero or greater")
+        private Integer quantity;
+    }
+}
@@ -0,0 +1,42 @@
+package com.example.ecommerce.model.dto.request;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@Data
+public class ProductBulkUpdateRequest {
+
+    @NotEmpty(message = "At least one product is required")
+    @Size(max = 1000, message = "At most 1000 products per request")
+    private List<@Valid Item> items;
+
+    /**
+     * Only the fields that are set are changed. {@code stockQuantity} replaces the stock and
+     * {@code stockDelta} adds to it; at most one of them may be given. When {@code version} is set the
+     * row is only changed if it still has that version.
+     */
+    @Data
+    public static class Item {
+
+        @NotNull(message = "Product ID is required")
+        private Long id;
+
+        private Long version;
+
+        @DecimalMin(value = "0", inclusive = true, message = "Price must be non-negative")
+        private BigDecimal price;
+
+        @Min(value = 0, message = "Stock quantity must be non-negative")
+        private Integer stockQuantity;
+
+        private Integer stockDelta;
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.ecommerce.model.dto.request;
+
+import lombok.Data;
+
+import java.math.BigDecimal;
+
+/**
+ * One line of a bulk product import. Same fields as {@link ProductRequest}, except that the category
+ * may be given by name ({@code category}) instead of {@code categoryId}.
+ */
+@Data
+public class ProductImportRow {
+    private String name;
+    private String description;
+    private BigDecimal price;
+    private Integer stockQuantity;
+    private Long categoryId;
+    private String category;
+    private String imageUrl;
+    private Integer lowStockThreshold;
+}
@@ -30,4 +30,7 @@ public class ProductRequest {
     @NotBlank(message = "Image URL is required")
     private String imageUrl;
 
+    @Min(value = 0, message = "Low stock threshold must be non-negative")
+    private Integer lowStockThreshold;
+
 }
\ No newline at end of file
@@ -0,0 +1,16 @@
+package com.example.ecommerce.model.dto.request;
+
+import lombok.Data;
+
+import java.math.BigDecimal;
+
+@Data
+public class ProductScrollFilter {
+    private String name;
+    private String category;
+    private Long categoryId;
+    private BigDecimal minPrice;
+    private BigDecimal maxPrice;
+    private Boolean inStock;
+    private boolean outOfStock;
+}
@@ -0,0 +1,14 @@
+package com.example.ecommerce.model.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.domain.Page;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FacetedSearchResponse {
+    private Page<ProductSummaryResponse> products;
+    private ProductFacets facets;
+}
@@ -0,0 +1,10 @@
+package com.example.ecommerce.model.dto.response;
+
+/**
+ * A product at or below its low-stock threshold, as held by the in-memory low-stock registry.
+ */
+public record LowStockItemResponse(Long productId,
+                                   String name,
+                                   Integer stockQuantity,
+                                   Integer threshold) {
+}
@@ -0,0 +1,25 @@
+package com.example.ecommerce.model.dto.response;
+
+import com.example.ecommerce.model.enums.BulkUpdateStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Outcome of a bulk price/stock update, one result per requested row in request order. Results carry
+ * the product's current version, price and stock, so a conflicting row can be retried from them.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductBulkUpdateResponse {
+    private int updated;
+    private int conflicts;
+    private List<Result> results;
+
+    public record Result(Long id, BulkUpdateStatus status, Long version, BigDecimal price, Integer stockQuantity) {
+    }
+}
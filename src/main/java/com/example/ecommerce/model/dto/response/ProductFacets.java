@@ -0,0 +1,43 @@
+package com.example.ecommerce.model.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Facet counts for a filtered product search. Each facet is counted with all the other filters
+ * applied but not its own, so the counts show what selecting a value would return.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductFacets {
+    private List<CategoryCount> categories;
+    private List<PriceRange> priceRanges;
+    private long inStock;
+    private long outOfStock;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class CategoryCount {
+        private Long categoryId;
+        private String name;
+        private long count;
+    }
+
+    /**
+     * Prices in {@code [from, to)}; {@code to} is null for the last, open-ended range.
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class PriceRange {
+        private BigDecimal from;
+        private BigDecimal to;
+        private long count;
+    }
+}
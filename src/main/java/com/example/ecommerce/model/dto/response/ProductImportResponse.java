@@ -0,0 +1,30 @@
+package com.example.ecommerce.model.dto.response;
+
+import com.example.ecommerce.model.enums.ImportStatus;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Progress of a bulk product import. {@code errors} lists the first rejected rows only;
+ * {@code rejected} counts all of them.
+ */
+@Data
+public class ProductImportResponse {
+    private String jobId;
+    private ImportStatus status;
+    private long rowsRead;
+    private long imported;
+    private long rejected;
+    private List<RowError> errors;
+    private String message;
+    private LocalDateTime submittedAt;
+    private LocalDateTime finishedAt;
+
+    /**
+     * {@code line} is the line the row starts on, counting the CSV header as line 1.
+     */
+    public record RowError(long line, String message) {
+    }
+}
@@ -15,4 +15,5 @@ public class ProductResponse {
     private CategoryResponse category;
     private LocalDateTime createdAt;
     private String imageUrl;
+    private Integer lowStockThreshold;
 }
\ No newline at end of file
@@ -0,0 +1,33 @@
+package com.example.ecommerce.model.dto.response;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Listing view of a product: the {@link ProductResponse} fields listings have always returned, selected
+ * straight from the database by constructor expression instead of mapping managed entities.
+ */
+public record ProductSummaryResponse(Long id,
+                                     String name,
+                                     String description,
+                                     BigDecimal price,
+                                     Integer stockQuantity,
+                                     String imageUrl,
+                                     LocalDateTime createdAt,
+                                     CategoryResponse category) {
+
+    public ProductSummaryResponse(Long id, String name, String description, BigDecimal price, Integer stockQuantity,
+                                  String imageUrl, LocalDateTime createdAt, Long categoryId, String categoryName,
+                                  String categoryImageUrl) {
+        this(id, name, description, price, stockQuantity, imageUrl, createdAt,
+                category(categoryId, categoryName, categoryImageUrl));
+    }
+
+    private static CategoryResponse category(Long id, String name, String imageUrl) {
+        CategoryResponse category = new CategoryResponse();
+        category.setId(id);
+        category.setName(name);
+        category.setImageUrl(imageUrl);
+        return category;
+    }
+}
@@ -0,0 +1,14 @@
+package com.example.ecommerce.model.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SuggestionResponse {
+    private String type;
+    private Long id;
+    private String name;
+}
@@ -0,0 +1,81 @@
+package com.example.ecommerce.model.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+import org.hibernate.Hibernate;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.SQLDelete;
+import org.hibernate.annotations.UpdateTimestamp;
+import org.hibernate.annotations.Where;
+import org.springframework.data.annotation.CreatedBy;
+import org.springframework.data.annotation.LastModifiedBy;
+import org.springframework.data.jpa.domain.support.AuditingEntityListener;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+/**
+ * Audit, soft-delete and version columns shared by every table; subclasses map the id. Most entities
+ * take theirs from {@link BaseEntity}, {@link Product} declares its own.
+ */
+@Getter
+@Setter
+@MappedSuperclass
+@Where(clause = "deleted_at IS NULL")
+public abstract class AuditedEntity implements Serializable {
+
+    @CreationTimestamp
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @UpdateTimestamp
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    @Column(name = "deleted_at")
+    private LocalDateTime deletedAt;
+
+    @CreatedBy
+    @Column(name = "created_by", updatable = false, length = 100)
+    private String createdBy;
+
+    @LastModifiedBy
+    @Column(name = "last_modified_by", length = 100)
+    private String lastModifiedBy;
+
+    @Column(name = "deleted_by", length = 100)
+    private String deletedBy;
+
+    @Version
+    @Column(name = "version")
+    private Long version;
+
+
+    public abstract Long getId();
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null) return false;
+        if (Hibernate.getClass(this) != Hibernate.getClass(o)) return false;
+        AuditedEntity that = (AuditedEntity) o;
+        return getId() != null && Objects.equals(getId(), that.getId());
+    }
+
+    @Override
+    public int hashCode() {
+        return getClass().hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "(" +
+                "id=" + getId() +
+                ", createdAt=" + createdAt +
+                ", updatedAt=" + updatedAt +
+                (deletedAt != null ? ", deletedAt=" + deletedAt : "") +
+                ")";
+    }
+}
@@ -1,5 +1,6 @@
 package com.example.ecommerce.model.entity;
 
+import com.example.ecommerce.util.TextAnalyzer;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
@@ -9,12 +10,32 @@ import lombok.Setter;
 import java.math.BigDecimal;
 
 @Entity
-@Table(name = "products")
+@Table(name = "products", indexes = {
+        @Index(name = "idx_products_search_key", columnList = "search_key"),
+        @Index(name = "idx_products_price", columnList = "price"),
+        @Index(name = "idx_products_created_at", columnList = "created_at")
+})
 @Getter
 @Setter
 @AllArgsConstructor
 @NoArgsConstructor
-public class Product extends BaseEntity {
+public class Product extends AuditedEntity {
+
+    /**
+     * Product ids come from a pooled sequence (a table on MySQL): Hibernate reserves
+     * {@link #ID_ALLOCATION_SIZE} ids per round trip and knows them before the INSERT, so the bulk import's
+     * inserts can be sent as JDBC batches, which IDENTITY columns rule out. Fetching a new block briefly
+     * takes a second pooled connection next to the caller's, once per block, which is why only this entity
+     * uses it.
+     */
+    public static final String ID_SEQUENCE = "product_id_seq";
+    public static final int ID_ALLOCATION_SIZE = 50;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "product_id")
+    @SequenceGenerator(name = "product_id", sequenceName = ID_SEQUENCE, allocationSize = ID_ALLOCATION_SIZE)
+    @Column(name = "id")
+    private Long id;
 
     @Column(nullable = false)
     private String name;
@@ -34,4 +55,18 @@ public class Product extends BaseEntity {
 
     @Column
     private String imageUrl;
+
+    // stock level at or below which the product is reported as low; null means the configured default
+    @Column(name = "low_stock_threshold")
+    private Integer lowStockThreshold;
+
+    // normalized name (see TextAnalyzer), kept in sync on every write so lookups can use the index
+    @Column(name = "search_key")
+    private String searchKey;
+
+    @PrePersist
+    @PreUpdate
+    void updateSearchKey() {
+        searchKey = TextAnalyzer.searchKey(name);
+    }
 }
@@ -0,0 +1,36 @@
+package com.example.ecommerce.model.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * Time-decayed sales score of a product, as of {@code scoredAt}. The in-memory popularity index writes
+ * its counters here periodically and reloads them on startup. Deliberately not a {@link BaseEntity}: the
+ * row is rewritten in place by an upsert and never soft-deleted.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "product_popularity")
+public class ProductPopularity {
+
+    @Id
+    @Column(name = "product_id")
+    private Long productId;
+
+    @Column(nullable = false)
+    private double score;
+
+    @Column(name = "total_sold", nullable = false)
+    private long totalSold;
+
+    @Column(name = "scored_at", nullable = false)
+    private LocalDateTime scoredAt;
+}
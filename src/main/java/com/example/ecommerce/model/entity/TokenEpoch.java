@@ -0,0 +1,29 @@
+package com.example.ecommerce.model.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Access tokens of {@code email} issued before {@code epochMillis}, always a whole second, are rejected.
+ * Kept apart from {@code users} so the revocation outlives a deleted account, and deliberately not a
+ * {@link BaseEntity}: the row is raised in place by an upsert and dropped once every token it covers has
+ * expired.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "token_epochs")
+public class TokenEpoch {
+
+    @Id
+    @Column(name = "email")
+    private String email;
+
+    @Column(name = "epoch_millis", nullable = false)
+    private long epochMillis;
+}
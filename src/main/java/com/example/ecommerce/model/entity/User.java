@@ -7,8 +7,6 @@ import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 
-import java.time.LocalDateTime;
-
 @Getter
 @Setter
 @AllArgsConstructor
@@ -32,7 +30,4 @@ public class User  extends BaseEntity{
     @Enumerated(EnumType.STRING)
     private Role role;
 
-    private String refreshToken;
-    private LocalDateTime refreshTokenExpiryDate;
-
 }
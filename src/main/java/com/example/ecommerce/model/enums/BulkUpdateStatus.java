@@ -0,0 +1,13 @@
+package com.example.ecommerce.model.enums;
+
+public enum BulkUpdateStatus {
+    UPDATED,
+    NOT_FOUND,
+    VERSION_CONFLICT,
+    INSUFFICIENT_STOCK,
+    /**
+     * Not applied although the product's current state allows it: another transaction changed the row
+     * between the update and the read. Retry from the returned state.
+     */
+    CONCURRENT_UPDATE
+}
@@ -0,0 +1,24 @@
+package com.example.ecommerce.model.enums;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+
+@Getter
+@RequiredArgsConstructor
+public enum DataFormat {
+    NDJSON("application/x-ndjson", "ndjson"),
+    CSV("text/csv", "csv");
+
+    private final String mediaType;
+    private final String extension;
+
+    public static DataFormat fromMediaType(MediaType mediaType) {
+        for (DataFormat format : values()) {
+            if (MediaType.parseMediaType(format.mediaType).isCompatibleWith(mediaType)) {
+                return format;
+            }
+        }
+        throw new IllegalArgumentException("Unsupported media type: " + mediaType);
+    }
+}
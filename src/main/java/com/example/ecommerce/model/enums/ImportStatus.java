@@ -0,0 +1,8 @@
+package com.example.ecommerce.model.enums;
+
+public enum ImportStatus {
+    QUEUED,
+    RUNNING,
+    COMPLETED,
+    FAILED
+}
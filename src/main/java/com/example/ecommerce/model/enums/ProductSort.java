@@ -0,0 +1,7 @@
+package com.example.ecommerce.model.enums;
+
+public enum ProductSort {
+    ID,
+    PRICE,
+    NEWEST
+}
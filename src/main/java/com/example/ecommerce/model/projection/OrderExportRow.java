@@ -0,0 +1,21 @@
+package com.example.ecommerce.model.projection;
+
+import com.example.ecommerce.model.enums.OrderStatus;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * One order item joined with its order, as read by the export cursor. Orders without items come back
+ * as a single row with null item columns.
+ */
+public record OrderExportRow(Long orderId,
+                             Long userId,
+                             OrderStatus status,
+                             BigDecimal totalPrice,
+                             LocalDateTime orderDate,
+                             Long itemId,
+                             String productName,
+                             Integer quantity,
+                             BigDecimal price) {
+}
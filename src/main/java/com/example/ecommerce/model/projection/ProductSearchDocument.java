@@ -0,0 +1,15 @@
+package com.example.ecommerce.model.projection;
+
+import java.math.BigDecimal;
+
+/**
+ * The product columns the in-memory search index needs, loaded without the entity graph.
+ */
+public record ProductSearchDocument(Long id,
+                                    String name,
+                                    String description,
+                                    Long categoryId,
+                                    String categoryName,
+                                    BigDecimal price,
+                                    Integer stockQuantity) {
+}
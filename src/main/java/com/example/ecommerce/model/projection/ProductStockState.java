@@ -0,0 +1,15 @@
+package com.example.ecommerce.model.projection;
+
+import java.math.BigDecimal;
+
+/**
+ * The product columns a bulk price/stock update reports back and propagates to the caches and
+ * in-memory indexes.
+ */
+public record ProductStockState(Long id,
+                                String name,
+                                BigDecimal price,
+                                Integer stockQuantity,
+                                Integer lowStockThreshold,
+                                Long version) {
+}
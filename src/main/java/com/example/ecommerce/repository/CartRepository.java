@@ -2,13 +2,36 @@ package com.example.ecommerce.repository;
 
 import com.example.ecommerce.model.entity.Cart;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface CartRepository extends JpaRepository<Cart, Long> {
+
+    /**
+     * Cart, items, products and categories in one statement: everything CartMapper reads, so building
+     * the response triggers no lazy loads.
+     */
+    String SELECT_WITH_ITEMS = "SELECT c FROM Cart c " +
+            "LEFT JOIN FETCH c.cartItems i " +
+            "LEFT JOIN FETCH i.product p " +
+            "LEFT JOIN FETCH p.category ";
+
     Optional<Cart> findByUser_Id(Long userId);
 
     Optional<Cart> findByUser_Email(String email);
+
+    @Query(SELECT_WITH_ITEMS + "WHERE c.user.id = :userId")
+    Optional<Cart> findWithItemsByUserId(@Param("userId") Long userId);
+
+    @Query(SELECT_WITH_ITEMS + "WHERE c.user.email = :email")
+    Optional<Cart> findWithItemsByUserEmail(@Param("email") String email);
+
+    @Query("SELECT c FROM Cart c LEFT JOIN FETCH c.cartItems WHERE c.id IN :ids")
+    List<Cart> findWithItemsByIdIn(@Param("ids") Collection<Long> ids);
 }
@@ -1,13 +1,30 @@
 package com.example.ecommerce.repository;
 
 import com.example.ecommerce.model.entity.Order;
+import com.example.ecommerce.model.projection.OrderExportRow;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface OrderRepository extends JpaRepository<Order, Long> {
     List<Order> findByUser_Id(Long userId);
     List<Order> findByUser_Email(String email);
+
+    /**
+     * Every order item joined with its order, ordered so the items of one order are adjacent, read
+     * through a server-side cursor. Must be consumed and closed inside a transaction.
+     */
+    @Query("SELECT new com.example.ecommerce.model.projection.OrderExportRow(" +
+            "o.id, o.user.id, o.status, o.totalPrice, o.createdAt, i.id, p.name, i.quantity, i.price) " +
+            "FROM Order o LEFT JOIN o.orderItems i LEFT JOIN i.product p " +
+            "ORDER BY o.id, i.id")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = StreamingQuery.FETCH_SIZE))
+    Stream<OrderExportRow> streamExportRows();
 }
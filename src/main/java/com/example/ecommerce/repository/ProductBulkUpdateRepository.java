@@ -0,0 +1,31 @@
+package com.example.ecommerce.repository;
+
+import com.example.ecommerce.model.dto.request.ProductBulkUpdateRequest;
+
+import java.util.List;
+
+/**
+ * Set-based price and stock changes sent as JDBC batches, without loading the entities.
+ */
+public interface ProductBulkUpdateRepository {
+
+    /**
+     * Applies each item as one conditional UPDATE that also bumps the row's version. Returns the
+     * number of rows changed per item, in item order: 0 when the product does not exist, has another
+     * version than the item expects, or would end up with negative stock.
+     */
+    int[] bulkUpdatePriceAndStock(List<ProductBulkUpdateRequest.Item> items);
+
+    /**
+     * Takes each quantity from its product's stock with one conditional UPDATE per product, sent as a
+     * single batch. Returns the rows changed per product, in argument order: 0 when the product does
+     * not exist or has less stock than the quantity.
+     */
+    int[] decrementStock(long[] productIds, int[] quantities);
+
+    /**
+     * Puts each quantity back on its product's stock in a single batch. Returns the rows changed per
+     * product, in argument order.
+     */
+    int[] incrementStock(long[] productIds, int[] quantities);
+}
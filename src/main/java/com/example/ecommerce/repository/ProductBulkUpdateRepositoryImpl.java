@@ -0,0 +1,104 @@
+package com.example.ecommerce.repository;
+
+import com.example.ecommerce.model.dto.request.ProductBulkUpdateRequest;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.List;
+
+public class ProductBulkUpdateRepositoryImpl implements ProductBulkUpdateRepository {
+
+    private static final int BATCH_SIZE = 500;
+
+    // updated_at is written in UTC like the entity timestamps (hibernate.jdbc.time_zone=UTC)
+    private static final String UPDATE_PRICE_AND_STOCK = "UPDATE products " +
+            "SET price = COALESCE(?, price), " +
+            "stock_quantity = COALESCE(?, stock_quantity + ?), " +
+            "version = COALESCE(version, 0) + 1, " +
+            "updated_at = UTC_TIMESTAMP(6) " +
+            "WHERE id = ? AND deleted_at IS NULL " +
+            "AND (? IS NULL OR version = ?) " +
+            "AND COALESCE(?, stock_quantity + ?) >= 0";
+
+    private static final String DECREMENT_STOCK = "UPDATE products " +
+            "SET stock_quantity = stock_quantity - ?, " +
+            "version = COALESCE(version, 0) + 1, " +
+            "updated_at = UTC_TIMESTAMP(6) " +
+            "WHERE id = ? AND deleted_at IS NULL AND stock_quantity >= ?";
+
+    private static final String INCREMENT_STOCK = "UPDATE products " +
+            "SET stock_quantity = stock_quantity + ?, " +
+            "version = COALESCE(version, 0) + 1, " +
+            "updated_at = UTC_TIMESTAMP(6) " +
+            "WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public ProductBulkUpdateRepositoryImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public int[] bulkUpdatePriceAndStock(List<ProductBulkUpdateRequest.Item> items) {
+        int[][] batches = jdbcTemplate.batchUpdate(UPDATE_PRICE_AND_STOCK, items, BATCH_SIZE, (ps, item) -> {
+            int delta = item.getStockDelta() == null ? 0 : item.getStockDelta();
+            ps.setObject(1, item.getPrice(), Types.DECIMAL);
+            ps.setObject(2, item.getStockQuantity(), Types.INTEGER);
+            ps.setInt(3, delta);
+            ps.setLong(4, item.getId());
+            ps.setObject(5, item.getVersion(), Types.BIGINT);
+            ps.setObject(6, item.getVersion(), Types.BIGINT);
+            ps.setObject(7, item.getStockQuantity(), Types.INTEGER);
+            ps.setInt(8, delta);
+        });
+
+        return flatten(batches, items.size());
+    }
+
+    @Override
+    public int[] decrementStock(long[] productIds, int[] quantities) {
+        return jdbcTemplate.batchUpdate(DECREMENT_STOCK, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                ps.setInt(1, quantities[i]);
+                ps.setLong(2, productIds[i]);
+                ps.setInt(3, quantities[i]);
+            }
+
+            @Override
+            public int getBatchSize() {
+                return productIds.length;
+            }
+        });
+    }
+
+    @Override
+    public int[] incrementStock(long[] productIds, int[] quantities) {
+        return jdbcTemplate.batchUpdate(INCREMENT_STOCK, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                ps.setInt(1, quantities[i]);
+                ps.setLong(2, productIds[i]);
+            }
+
+            @Override
+            public int getBatchSize() {
+                return productIds.length;
+            }
+        });
+    }
+
+    private static int[] flatten(int[][] batches, int size) {
+        int[] counts = new int[size];
+        int i = 0;
+        for (int[] batch : batches) {
+            for (int count : batch) {
+                counts[i++] = count;
+            }
+        }
+        return counts;
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.ecommerce.repository;
+
+import com.example.ecommerce.model.entity.ProductPopularity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface ProductPopularityRepository extends JpaRepository<ProductPopularity, Long> {
+
+    /**
+     * Decays the stored score to {@code now} and adds {@code score} (negative for cancellations), so
+     * instances writing the same product concurrently add up instead of overwriting each other.
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "INSERT INTO product_popularity (product_id, score, total_sold, scored_at) " +
+            "VALUES (:productId, GREATEST(:score, 0), GREATEST(:sold, 0), :now) " +
+            "ON DUPLICATE KEY UPDATE " +
+            "score = GREATEST(0, score * POW(2, -TIMESTAMPDIFF(SECOND, scored_at, :now) / :halfLifeSeconds) + :score), " +
+            "total_sold = GREATEST(0, total_sold + :sold), " +
+            "scored_at = :now",
+            nativeQuery = true)
+    int addScore(@Param("productId") Long productId,
+                 @Param("score") double score,
+                 @Param("sold") long sold,
+                 @Param("now") LocalDateTime now,
+                 @Param("halfLifeSeconds") double halfLifeSeconds);
+
+    /**
+     * Drops the products whose score has decayed below {@code minScore}.
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "DELETE FROM product_popularity " +
+            "WHERE score * POW(2, -TIMESTAMPDIFF(SECOND, scored_at, :now) / :halfLifeSeconds) < :minScore",
+            nativeQuery = true)
+    int deleteDecayed(@Param("now") LocalDateTime now,
+                      @Param("halfLifeSeconds") double halfLifeSeconds,
+                      @Param("minScore") double minScore);
+
+    @Query("SELECT pp FROM ProductPopularity pp " +
+            "WHERE EXISTS (SELECT 1 FROM Product p WHERE p.id = pp.productId AND p.deletedAt IS NULL)")
+    List<ProductPopularity> findAllForLiveProducts();
+}
@@ -1,32 +1,55 @@
 package com.example.ecommerce.repository;
 
+import com.example.ecommerce.model.dto.response.LowStockItemResponse;
+import com.example.ecommerce.model.dto.response.ProductSummaryResponse;
 import com.example.ecommerce.model.entity.Product;
+import com.example.ecommerce.model.projection.ProductSearchDocument;
+import com.example.ecommerce.model.projection.ProductStockState;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
-public interface ProductRepository extends JpaRepository<Product, Long> {
+public interface ProductRepository extends JpaRepository<Product, Long>, ProductScrollRepository,
+        ProductBulkUpdateRepository {
+
+    /**
+     * Listing columns with the category joined in the same statement, read straight into DTOs.
+     */
+    String SELECT_SUMMARY = "SELECT new com.example.ecommerce.model.dto.response.ProductSummaryResponse(" +
+            "p.id, p.name, p.description, p.price, p.stockQuantity, p.imageUrl, p.createdAt, c.id, c.name, c.imageUrl) " +
+            "FROM Product p JOIN p.category c ";
+
+    String COUNT_PRODUCTS = "SELECT COUNT(p) FROM Product p JOIN p.category c ";
 
     /**
      * البحث المحسن في المنتجات مع دعم الفلترة المتقدمة
      * يدعم البحث بالاسم، الفئة، ونطاق الأسعار
      */
-    @Query("SELECT p FROM Product p " +
-            "WHERE p.deletedAt IS NULL " +
+    String SEARCH_ADVANCED_WHERE = "WHERE p.deletedAt IS NULL " +
             "AND (:name IS NULL OR :name = '' OR LOWER(p.name) LIKE LOWER(CONCAT('%', TRIM(:name), '%'))) " +
-            "AND (:category IS NULL OR :category = '' OR LOWER(p.category.name) = LOWER(TRIM(:category))) " +
+            "AND (:category IS NULL OR :category = '' OR LOWER(c.name) = LOWER(TRIM(:category))) " +
             "AND (:minPrice IS NULL OR p.price >= :minPrice) " +
             "AND (:maxPrice IS NULL OR p.price <= :maxPrice) " +
-            "AND (:inStock IS NULL OR (:inStock = true AND p.stockQuantity > 0) OR (:inStock = false))")
-    Page<Product> search(@Param("name") String name,
+            "AND (:inStock IS NULL OR (:inStock = true AND p.stockQuantity > 0) OR (:inStock = false))";
+
+    @Query(value = SELECT_SUMMARY + SEARCH_ADVANCED_WHERE,
+            countQuery = COUNT_PRODUCTS + SEARCH_ADVANCED_WHERE)
+    Page<ProductSummaryResponse> search(@Param("name") String name,
                          @Param("category") String category,
                          @Param("minPrice") BigDecimal minPrice,
                          @Param("maxPrice") BigDecimal maxPrice,
@@ -36,70 +59,106 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
     /**
      * البحث البسيط (للتوافق مع الكود الموجود)
      */
-    @Query("SELECT p FROM Product p " +
-            "WHERE p.deletedAt IS NULL " +
+    String SEARCH_WHERE = "WHERE p.deletedAt IS NULL " +
             "AND (:name IS NULL OR :name = '' OR LOWER(p.name) LIKE LOWER(CONCAT('%', TRIM(:name), '%'))) " +
-            "AND (:category IS NULL OR :category = '' OR LOWER(p.category.name) = LOWER(TRIM(:category)))")
-    Page<Product> search(@Param("name") String name,
+            "AND (:category IS NULL OR :category = '' OR LOWER(c.name) = LOWER(TRIM(:category)))";
+
+    @Query(value = SELECT_SUMMARY + SEARCH_WHERE,
+            countQuery = COUNT_PRODUCTS + SEARCH_WHERE)
+    Page<ProductSummaryResponse> search(@Param("name") String name,
                          @Param("category") String category,
                          Pageable pageable);
 
     /**
      * البحث في المنتجات بالاسم فقط
      */
-    @Query("SELECT p FROM Product p " +
+    @Query(value = SELECT_SUMMARY +
             "WHERE p.deletedAt IS NULL " +
-            "AND LOWER(p.name) LIKE LOWER(CONCAT('%', TRIM(:name), '%'))")
-    Page<Product> searchByName(@Param("name") String name, Pageable pageable);
+            "AND LOWER(p.name) LIKE LOWER(CONCAT('%', TRIM(:name), '%'))",
+            countQuery = COUNT_PRODUCTS +
+                    "WHERE p.deletedAt IS NULL " +
+                    "AND LOWER(p.name) LIKE LOWER(CONCAT('%', TRIM(:name), '%'))")
+    Page<ProductSummaryResponse> searchByName(@Param("name") String name, Pageable pageable);
 
     /**
      * البحث في المنتجات حسب الفئة
      */
-    @Query("SELECT p FROM Product p " +
+    @Query(value = SELECT_SUMMARY +
             "WHERE p.deletedAt IS NULL " +
-            "AND p.category.id = :categoryId")
-    Page<Product> findByCategoryId(@Param("categoryId") Long categoryId, Pageable pageable);
+            "AND c.id = :categoryId",
+            countQuery = COUNT_PRODUCTS +
+                    "WHERE p.deletedAt IS NULL " +
+                    "AND c.id = :categoryId")
+    Page<ProductSummaryResponse> findByCategoryId(@Param("categoryId") Long categoryId, Pageable pageable);
 
     /**
      * البحث في المنتجات ضمن نطاق سعري
      */
-    @Query("SELECT p FROM Product p " +
+    @Query(value = SELECT_SUMMARY +
             "WHERE p.deletedAt IS NULL " +
-            "AND p.price BETWEEN :minPrice AND :maxPrice")
-    Page<Product> findByPriceRange(@Param("minPrice") BigDecimal minPrice,
+            "AND p.price BETWEEN :minPrice AND :maxPrice",
+            countQuery = COUNT_PRODUCTS +
+                    "WHERE p.deletedAt IS NULL " +
+                    "AND p.price BETWEEN :minPrice AND :maxPrice")
+    Page<ProductSummaryResponse> findByPriceRange(@Param("minPrice") BigDecimal minPrice,
                                    @Param("maxPrice") BigDecimal maxPrice,
                                    Pageable pageable);
 
     /**
      * العثور على المنتجات المتوفرة في المخزون
      */
-    @Query("SELECT p FROM Product p " +
+    @Query(value = SELECT_SUMMARY +
             "WHERE p.deletedAt IS NULL " +
-            "AND p.stockQuantity > 0")
-    Page<Product> findAvailableProducts(Pageable pageable);
+            "AND p.stockQuantity > 0",
+            countQuery = COUNT_PRODUCTS +
+                    "WHERE p.deletedAt IS NULL " +
+                    "AND p.stockQuantity > 0")
+    Page<ProductSummaryResponse> findAvailableProducts(Pageable pageable);
 
     /**
      * العثور على المنتجات النافدة
      */
-    @Query("SELECT p FROM Product p " +
+    @Query(value = SELECT_SUMMARY +
             "WHERE p.deletedAt IS NULL " +
-            "AND p.stockQuantity = 0")
-    Page<Product> findOutOfStockProducts(Pageable pageable);
+            "AND p.stockQuantity = 0",
+            countQuery = COUNT_PRODUCTS +
+                    "WHERE p.deletedAt IS NULL " +
+                    "AND p.stockQuantity = 0")
+    Page<ProductSummaryResponse> findOutOfStockProducts(Pageable pageable);
 
     /**
      * العثور على المنتجات ذات المخزون المنخفض
+     * Used only to load the low-stock registry; products without their own threshold use the default.
+     * Out-of-stock products are left to findOutOfStockProducts, as before.
      */
-    @Query("SELECT p FROM Product p " +
+    @Query("SELECT new com.example.ecommerce.model.dto.response.LowStockItemResponse(" +
+            "p.id, p.name, p.stockQuantity, COALESCE(p.lowStockThreshold, :defaultThreshold)) " +
+            "FROM Product p " +
+            "WHERE p.deletedAt IS NULL " +
+            "AND p.stockQuantity > 0 " +
+            "AND p.stockQuantity <= COALESCE(p.lowStockThreshold, :defaultThreshold)")
+    List<LowStockItemResponse> findLowStockProducts(@Param("defaultThreshold") Integer defaultThreshold);
+
+    /**
+     * Low-stock products against one threshold for all of them, ignoring their own; lowest stock first.
+     */
+    @Query("SELECT new com.example.ecommerce.model.dto.response.LowStockItemResponse(" +
+            "p.id, p.name, p.stockQuantity, CAST(:threshold AS Integer)) " +
+            "FROM Product p " +
             "WHERE p.deletedAt IS NULL " +
             "AND p.stockQuantity > 0 " +
-            "AND p.stockQuantity <= :threshold")
-    List<Product> findLowStockProducts(@Param("threshold") Integer threshold);
+            "AND p.stockQuantity <= :threshold " +
+            "ORDER BY p.stockQuantity, p.id")
+    List<LowStockItemResponse> findLowStockProductsAt(@Param("threshold") Integer threshold);
 
     // الـ methods الموجودة
     Optional<Product> findByName(String name);
 
-    @Query("SELECT p FROM Product p WHERE p.deletedAt IS NULL AND p.category.name = :categoryName")
-    List<Product> findByCategoryName(@Param("categoryName") String categoryName);
+    @Query("SELECT p FROM Product p JOIN FETCH p.category WHERE p.id = :id")
+    Optional<Product> findWithCategoryById(@Param("id") Long id);
+
+    @Query(SELECT_SUMMARY + "WHERE p.deletedAt IS NULL AND c.name = :categoryName")
+    List<ProductSummaryResponse> findByCategoryName(@Param("categoryName") String categoryName);
 
     /**
      * العثور على منتج بالاسم (مع تجاهل الحالة)
@@ -110,10 +169,67 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
     Optional<Product> findByNameIgnoreCase(@Param("name") String name);
 
     /**
-     * العثور على المنتجات الأكثر مبيعاً (يحتاج جدول المبيعات)
+     * Which of the given names are already taken, in one query per import batch.
      */
-    @Query("SELECT p FROM Product p " +
+    @Query("SELECT p.name FROM Product p WHERE p.deletedAt IS NULL AND p.name IN :names")
+    List<String> findExistingNames(@Param("names") Collection<String> names);
+
+    @Query("SELECT new com.example.ecommerce.model.projection.ProductStockState(" +
+            "p.id, p.name, p.price, p.stockQuantity, p.lowStockThreshold, p.version) " +
+            "FROM Product p WHERE p.deletedAt IS NULL AND p.id IN :ids")
+    List<ProductStockState> findStockStates(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Loads products for the search index in id order, one keyset page at a time.
+     */
+    @Query("SELECT new com.example.ecommerce.model.projection.ProductSearchDocument(" +
+            "p.id, p.name, p.description, c.id, c.name, p.price, p.stockQuantity) " +
+            "FROM Product p JOIN p.category c " +
+            "WHERE p.deletedAt IS NULL " +
+            "AND p.id > :afterId " +
+            "ORDER BY p.id")
+    List<ProductSearchDocument> findSearchDocuments(@Param("afterId") Long afterId, Pageable pageable);
+
+    /**
+     * Prefix match on the normalized name; the caller passes a key built with TextAnalyzer.searchKey
+     */
+    @Query(value = SELECT_SUMMARY +
             "WHERE p.deletedAt IS NULL " +
-            "ORDER BY p.id DESC")
-    Page<Product> findPopularProducts(Pageable pageable);
+            "AND p.searchKey LIKE CONCAT(:key, '%')",
+            countQuery = COUNT_PRODUCTS +
+                    "WHERE p.deletedAt IS NULL " +
+                    "AND p.searchKey LIKE CONCAT(:key, '%')")
+    Page<ProductSummaryResponse> searchBySearchKey(@Param("key") String key, Pageable pageable);
+
+    @Query("SELECT p.id AS id, p.name AS name FROM Product p WHERE p.searchKey IS NULL ORDER BY p.id")
+    List<SearchKeyBackfillView> findWithoutSearchKey(Pageable pageable);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE Product p SET p.searchKey = :searchKey WHERE p.id = :id")
+    int updateSearchKey(@Param("id") Long id, @Param("searchKey") String searchKey);
+
+    @Query(SELECT_SUMMARY + "WHERE p.deletedAt IS NULL AND p.id IN :ids")
+    List<ProductSummaryResponse> findSummariesByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query(SELECT_SUMMARY + "WHERE p.deletedAt IS NULL ORDER BY p.id")
+    List<ProductSummaryResponse> findAllSummaries();
+
+    @Query(value = SELECT_SUMMARY + "WHERE p.deletedAt IS NULL",
+            countQuery = COUNT_PRODUCTS + "WHERE p.deletedAt IS NULL")
+    Page<ProductSummaryResponse> findAllSummaries(Pageable pageable);
+
+    /**
+     * Every live product for export, read through a server-side cursor. Must be consumed and closed
+     * inside a transaction.
+     */
+    @Query(SELECT_SUMMARY + "WHERE p.deletedAt IS NULL ORDER BY p.id")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = StreamingQuery.FETCH_SIZE))
+    Stream<ProductSummaryResponse> streamAllSummaries();
+
+    interface SearchKeyBackfillView {
+        Long getId();
+
+        String getName();
+    }
 }
@@ -0,0 +1,23 @@
+package com.example.ecommerce.repository;
+
+import com.example.ecommerce.model.dto.request.ProductScrollFilter;
+import com.example.ecommerce.model.dto.response.ProductSummaryResponse;
+import com.example.ecommerce.model.enums.ProductSort;
+
+import java.util.List;
+
+/**
+ * Keyset (seek) pagination over products: each page starts strictly after the (sort key, id) of the
+ * previous one, so the database seeks into the index instead of skipping an offset.
+ */
+public interface ProductScrollRepository {
+
+    /**
+     * Returns up to {@code limit} product summaries after the given position.
+     * {@code afterKey} and {@code afterId} are null for the first page; {@code afterKey} is the
+     * price or creation time of the last row depending on the sort, and unused for {@link ProductSort#ID}.
+     */
+    List<ProductSummaryResponse> scroll(ProductScrollFilter filter, ProductSort sort, Object afterKey, Long afterId, int limit);
+
+    long countMatching(ProductScrollFilter filter);
+}
@@ -0,0 +1,112 @@
+package com.example.ecommerce.repository;
+
+import com.example.ecommerce.model.dto.request.ProductScrollFilter;
+import com.example.ecommerce.model.dto.response.ProductSummaryResponse;
+import com.example.ecommerce.model.entity.Category;
+import com.example.ecommerce.model.entity.Product;
+import com.example.ecommerce.model.enums.ProductSort;
+import com.example.ecommerce.util.TextAnalyzer;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+public class ProductScrollRepositoryImpl implements ProductScrollRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<ProductSummaryResponse> scroll(ProductScrollFilter filter, ProductSort sort, Object afterKey, Long afterId, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<ProductSummaryResponse> query = cb.createQuery(ProductSummaryResponse.class);
+        Root<Product> product = query.from(Product.class);
+        Join<Product, Category> category = product.join("category", JoinType.INNER);
+
+        List<Predicate> predicates = filters(cb, product, category, filter);
+        if (afterId != null) {
+            predicates.add(after(cb, product, sort, afterKey, afterId));
+        }
+        query.select(cb.construct(ProductSummaryResponse.class,
+                        product.get("id"), product.get("name"), product.get("description"), product.get("price"),
+                        product.get("stockQuantity"), product.get("imageUrl"), product.get("createdAt"),
+                        category.get("id"), category.get("name"), category.get("imageUrl")))
+                .where(predicates.toArray(Predicate[]::new));
+
+        switch (sort) {
+            case PRICE -> query.orderBy(cb.asc(product.<BigDecimal>get("price")), cb.asc(product.<Long>get("id")));
+            case NEWEST -> query.orderBy(cb.desc(product.<LocalDateTime>get("createdAt")), cb.desc(product.<Long>get("id")));
+            default -> query.orderBy(cb.asc(product.<Long>get("id")));
+        }
+
+        return entityManager.createQuery(query)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    @Override
+    public long countMatching(ProductScrollFilter filter) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<Product> product = query.from(Product.class);
+        Join<Product, Category> category = product.join("category", JoinType.INNER);
+
+        query.select(cb.count(product))
+                .where(filters(cb, product, category, filter).toArray(Predicate[]::new));
+        return entityManager.createQuery(query).getSingleResult();
+    }
+
+    /**
+     * Rows strictly after the last one returned, in the order of the sort: (key, id) compared as a tuple.
+     */
+    private Predicate after(CriteriaBuilder cb, Root<Product> product, ProductSort sort, Object afterKey, Long afterId) {
+        return switch (sort) {
+            case PRICE -> cb.or(
+                    cb.greaterThan(product.<BigDecimal>get("price"), (BigDecimal) afterKey),
+                    cb.and(cb.equal(product.<BigDecimal>get("price"), afterKey), cb.greaterThan(product.<Long>get("id"), afterId)));
+            case NEWEST -> cb.or(
+                    cb.lessThan(product.<LocalDateTime>get("createdAt"), (LocalDateTime) afterKey),
+                    cb.and(cb.equal(product.<LocalDateTime>get("createdAt"), afterKey), cb.lessThan(product.<Long>get("id"), afterId)));
+            default -> cb.greaterThan(product.<Long>get("id"), afterId);
+        };
+    }
+
+    private List<Predicate> filters(CriteriaBuilder cb, Root<Product> product, Join<Product, Category> category,
+                                    ProductScrollFilter filter) {
+        List<Predicate> predicates = new ArrayList<>();
+        predicates.add(cb.isNull(product.<LocalDateTime>get("deletedAt")));
+
+        if (filter.getName() != null && !filter.getName().isBlank()) {
+            predicates.add(cb.like(product.<String>get("searchKey"), TextAnalyzer.searchKey(filter.getName()) + "%"));
+        }
+        if (filter.getCategory() != null && !filter.getCategory().isBlank()) {
+            predicates.add(cb.equal(cb.lower(category.<String>get("name")), filter.getCategory().trim().toLowerCase(Locale.ROOT)));
+        }
+        if (filter.getCategoryId() != null) {
+            predicates.add(cb.equal(category.<Long>get("id"), filter.getCategoryId()));
+        }
+        if (filter.getMinPrice() != null) {
+            predicates.add(cb.greaterThanOrEqualTo(product.<BigDecimal>get("price"), filter.getMinPrice()));
+        }
+        if (filter.getMaxPrice() != null) {
+            predicates.add(cb.lessThanOrEqualTo(product.<BigDecimal>get("price"), filter.getMaxPrice()));
+        }
+        if (Boolean.TRUE.equals(filter.getInStock())) {
+            predicates.add(cb.greaterThan(product.<Integer>get("stockQuantity"), 0));
+        }
+        if (filter.isOutOfStock()) {
+            predicates.add(cb.equal(product.<Integer>get("stockQuantity"), 0));
+        }
+        return predicates;
+    }
+}
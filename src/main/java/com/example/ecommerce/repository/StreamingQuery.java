@@ -0,0 +1,18 @@
+package com.example.ecommerce.repository;
+
+/**
+ * Query hint values for repository methods that return a {@code Stream}.
+ */
+public final class StreamingQuery {
+
+    /**
+     * MySQL Connector/J only streams a result set row by row when the fetch size is
+     * {@code Integer.MIN_VALUE}; any other value makes it buffer the whole result in memory first.
+     * The connection cannot run another statement until the stream is closed.
+     */
+    public static final String FETCH_SIZE = "" + Integer.MIN_VALUE;
+
+    private StreamingQuery() {
+        // Utility class
+    }
+}
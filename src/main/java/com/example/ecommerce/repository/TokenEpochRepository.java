@@ -0,0 +1,31 @@
+package com.example.ecommerce.repository;
+
+import com.example.ecommerce.model.entity.TokenEpoch;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+@Repository
+public interface TokenEpochRepository extends JpaRepository<TokenEpoch, String> {
+
+    /**
+     * Sets the user's epoch, never moving it backwards when instances revoke concurrently.
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "INSERT INTO token_epochs (email, epoch_millis) VALUES (:email, :epoch) " +
+            "ON DUPLICATE KEY UPDATE epoch_millis = GREATEST(epoch_millis, :epoch)",
+            nativeQuery = true)
+    int raise(@Param("email") String email, @Param("epoch") long epoch);
+
+    /**
+     * Drops epochs older than the longest access token lifetime; no token they could reject is still valid.
+     */
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM TokenEpoch e WHERE e.epochMillis < :cutoff")
+    int deleteOlderThan(@Param("cutoff") long cutoff);
+}
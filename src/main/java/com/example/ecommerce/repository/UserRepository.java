@@ -1,15 +1,37 @@
 package com.example.ecommerce.repository;
 
+import com.example.ecommerce.model.dto.response.UserResponse;
 import com.example.ecommerce.model.entity.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
 
     Optional<User> findByEmail(String email);
 
-    Optional<User> findByRefreshToken(String refreshToken);
+    @Transactional
+    @Modifying
+    @Query("UPDATE User u SET u.password = :password WHERE u.id = :id")
+    int updatePassword(@Param("id") Long id, @Param("password") String password);
+
+    /**
+     * Every user for export, read through a server-side cursor. Must be consumed and closed inside a
+     * transaction.
+     */
+    @Query("SELECT new com.example.ecommerce.model.dto.response.UserResponse(" +
+            "u.id, u.fullName, u.imageUrl, u.email, u.role, u.createdAt) " +
+            "FROM User u ORDER BY u.id")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = StreamingQuery.FETCH_SIZE))
+    Stream<UserResponse> streamAllUsers();
 }
@@ -13,17 +13,14 @@ import org.springframework.transaction.annotation.Transactional;
 
 public interface AuthService {
 
-    @Transactional
     UserResponse register(UserRegisterRequest req);
 
-    @Transactional
-    JwtResponse login(UserRequestLogin req, HttpServletResponse response);
+    JwtResponse login(UserRequestLogin req, HttpServletRequest request, HttpServletResponse response);
 
     @Transactional
     void logoutUser(String email, @NotNull HttpServletRequest request, HttpServletResponse response);
 
     void addTokenToHeader(HttpServletResponse response, String jwtToken, String refreshToken);
 
-    @Transactional
     JwtResponse refreshToken(TokenRefreshRequest request);
 }
\ No newline at end of file
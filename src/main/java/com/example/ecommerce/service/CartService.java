@@ -1,11 +1,14 @@
 package com.example.ecommerce.service;
 
+import com.example.ecommerce.model.dto.request.CartBatchRequest;
 import com.example.ecommerce.model.dto.request.CartItemRequest;
 import com.example.ecommerce.model.dto.response.CartResponse;
 import com.example.ecommerce.model.entity.Cart;
 import com.example.ecommerce.util.MessageResponse;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Map;
+
 public interface CartService {
     @Transactional
     Cart createNewCartById(Long userId);
@@ -20,6 +23,9 @@ public interface CartService {
     @Transactional
     CartResponse updateItem(String email, Long productId, CartItemRequest req);
 
+    @Transactional
+    CartResponse applyOperations(String email, CartBatchRequest request);
+
     @Transactional
     MessageResponse deleteCartItem(Long cartItemId);
 
@@ -29,4 +35,15 @@ public interface CartService {
 
     @Transactional
     MessageResponse clearCart(String email);
+
+    /**
+     * Brings the user's rows in the cart tables up to date within the current transaction, for callers
+     * that read the cart from the database (checkout).
+     */
+    void syncCart(String email);
+
+    /**
+     * Tells the cart store that checkout ordered these quantities and emptied the user's cart rows.
+     */
+    void checkedOut(String email, Map<Long, Integer> orderedQuantities);
 }
\ No newline at end of file
@@ -1,7 +1,9 @@
 package com.example.ecommerce.service;
 
 import com.example.ecommerce.model.dto.response.OrderResponse;
+import com.example.ecommerce.model.enums.DataFormat;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 
@@ -16,4 +18,6 @@ public interface OrderService {
     List<OrderResponse> getUserOrders(String email);
 
     List<OrderResponse> listAll();
+
+    StreamingResponseBody exportAll(DataFormat format);
 }
\ No newline at end of file
@@ -0,0 +1,13 @@
+package com.example.ecommerce.service;
+
+import com.example.ecommerce.model.dto.response.ProductImportResponse;
+import com.example.ecommerce.model.enums.DataFormat;
+
+import java.io.InputStream;
+
+public interface ProductImportService {
+
+    ProductImportResponse submit(InputStream body, DataFormat format);
+
+    ProductImportResponse getStatus(String jobId);
+}
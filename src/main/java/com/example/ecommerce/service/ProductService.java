@@ -1,42 +1,67 @@
 package com.example.ecommerce.service;
 
+import com.example.ecommerce.model.dto.request.ProductBulkUpdateRequest;
 import com.example.ecommerce.model.dto.request.ProductRequest;
+import com.example.ecommerce.model.dto.request.ProductScrollFilter;
+import com.example.ecommerce.model.dto.response.CursorPage;
+import com.example.ecommerce.model.dto.response.FacetedSearchResponse;
+import com.example.ecommerce.model.dto.response.LowStockItemResponse;
+import com.example.ecommerce.model.dto.response.ProductBulkUpdateResponse;
 import com.example.ecommerce.model.dto.response.ProductResponse;
+import com.example.ecommerce.model.dto.response.ProductSummaryResponse;
+import com.example.ecommerce.model.dto.response.SuggestionResponse;
+import com.example.ecommerce.model.enums.DataFormat;
+import com.example.ecommerce.model.enums.ProductSort;
 import com.example.ecommerce.util.MessageResponse;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.math.BigDecimal;
 import java.util.List;
 
 public interface ProductService {
 
-    Page<ProductResponse> search(String name, String category, Pageable pageable);
+    Page<ProductSummaryResponse> search(String name, String category, Pageable pageable);
 
-    Page<ProductResponse> searchAdvanced(String name, String category,
-                                       BigDecimal minPrice, BigDecimal maxPrice,
-                                       Boolean inStock, Pageable pageable);
+    Page<ProductSummaryResponse> searchAdvanced(String name, String category,
+                                              BigDecimal minPrice, BigDecimal maxPrice,
+                                              Boolean inStock, Pageable pageable);
 
-    Page<ProductResponse> searchByName(String name, Pageable pageable);
+    FacetedSearchResponse searchFaceted(String name, String category, BigDecimal minPrice, BigDecimal maxPrice,
+                                        Boolean inStock, Pageable pageable);
 
-    Page<ProductResponse> searchByPriceRange(BigDecimal minPrice, BigDecimal maxPrice, Pageable pageable);
+    Page<ProductSummaryResponse> searchByName(String name, Pageable pageable);
 
-    Page<ProductResponse> findAvailableProducts(Pageable pageable);
+    Page<ProductSummaryResponse> searchByPriceRange(BigDecimal minPrice, BigDecimal maxPrice, Pageable pageable);
 
-    Page<ProductResponse> findOutOfStockProducts(Pageable pageable);
+    Page<ProductSummaryResponse> findAvailableProducts(Pageable pageable);
 
-    List<ProductResponse> findLowStockProducts(Integer threshold);
+    Page<ProductSummaryResponse> findOutOfStockProducts(Pageable pageable);
+
+    List<LowStockItemResponse> findLowStockProducts(Integer threshold);
+    SseEmitter subscribeLowStock();
+
+    List<SuggestionResponse> suggest(String prefix, int limit);
+
+    CursorPage<ProductSummaryResponse> scroll(ProductScrollFilter filter, ProductSort sort, String cursor,
+                                              int size, boolean includeTotal);
 
     @Transactional
     ProductResponse createProduct(ProductRequest productRequest);
     ProductResponse getProductById(Long id);
     ProductResponse getProductByName(String name);
-    List<ProductResponse> getProductByCategory(String name);
-    List<ProductResponse> getAllProducts();
+    List<ProductSummaryResponse> getProductByCategory(String name);
+    List<ProductSummaryResponse> getAllProducts();
+    List<ProductSummaryResponse> getPopularProducts(int limit);
+    StreamingResponseBody exportProducts(DataFormat format);
     @Transactional
     MessageResponse update(Long id, ProductRequest request);
     @Transactional
+    ProductBulkUpdateResponse bulkUpdate(ProductBulkUpdateRequest request);
+    @Transactional
     MessageResponse DeleteProduct(Long id);
 
 }
\ No newline at end of file
@@ -0,0 +1,22 @@
+package com.example.ecommerce.service;
+
+import com.example.ecommerce.model.entity.User;
+
+public interface RefreshTokenService {
+
+    /**
+     * Starts a new rotation family for the user and returns the raw refresh token.
+     */
+    String issue(User user);
+
+    /**
+     * Exchanges a refresh token for a new one in the same family. Presenting a token that was already
+     * rotated revokes the whole family.
+     */
+    RotatedToken rotate(String rawToken);
+
+    void revokeAll(Long userId);
+
+    record RotatedToken(User user, String refreshToken) {
+    }
+}
@@ -0,0 +1,8 @@
+package com.example.ecommerce.service;
+
+/**
+ * Published inside the transaction that deletes a user. The email may be registered again afterwards,
+ * so anything cached under it or under the id must be dropped once the delete commits.
+ */
+public record UserDeletedEvent(Long userId, String email) {
+}
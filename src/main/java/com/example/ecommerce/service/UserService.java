@@ -2,8 +2,10 @@ package com.example.ecommerce.service;
 
 import com.example.ecommerce.model.dto.request.UserRequestUpdate;
 import com.example.ecommerce.model.dto.response.UserResponse;
+import com.example.ecommerce.model.enums.DataFormat;
 import com.example.ecommerce.util.MessageResponse;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 
@@ -11,6 +13,7 @@ public interface UserService {
     UserResponse getUserById(Long id);
     UserResponse getUserByEmail(String email);
     List<UserResponse> getAllUsers();
+    StreamingResponseBody exportUsers(DataFormat format);
     @Transactional
     MessageResponse deleteUser(String email);
     @Transactional
@@ -0,0 +1,62 @@
+package com.example.ecommerce.service.cache;
+
+import com.example.ecommerce.config.CacheNames;
+import com.example.ecommerce.util.AfterCommit;
+import lombok.RequiredArgsConstructor;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+
+/**
+ * Write-through invalidation of the catalog caches. Entries are evicted after the writing transaction
+ * commits, so a concurrent read cannot put the pre-commit value back into the cache.
+ */
+@Component
+@RequiredArgsConstructor
+public class CatalogCacheEvictor {
+
+    private final CacheManager cacheManager;
+
+    /**
+     * Evicts one product by id and under every name it was cached with.
+     */
+    public void evictProduct(Long id, String... names) {
+        AfterCommit.run(() -> {
+            cache(CacheNames.PRODUCTS).evict(id);
+            Cache byName = cache(CacheNames.PRODUCTS_BY_NAME);
+            for (String name : names) {
+                if (name != null) {
+                    byName.evict(name.toLowerCase(Locale.ROOT));
+                }
+            }
+        });
+    }
+
+    public void evictCategories() {
+        AfterCommit.run(() -> {
+            cache(CacheNames.CATEGORIES).clear();
+            cache(CacheNames.CATEGORY_BY_ID).clear();
+        });
+    }
+
+    /**
+     * Cached products embed their category, so renaming or deleting one invalidates all of them.
+     */
+    public void evictAllProducts() {
+        AfterCommit.run(() -> {
+            cache(CacheNames.PRODUCTS).clear();
+            cache(CacheNames.PRODUCTS_BY_NAME).clear();
+            cache(CacheNames.POPULAR_PRODUCTS).clear();
+        });
+    }
+
+    private Cache cache(String name) {
+        Cache cache = cacheManager.getCache(name);
+        if (cache == null) {
+            throw new IllegalStateException("Cache not configured: " + name);
+        }
+        return cache;
+    }
+}
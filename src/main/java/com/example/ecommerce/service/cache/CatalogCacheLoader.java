@@ -0,0 +1,60 @@
+package com.example.ecommerce.service.cache;
+
+import com.example.ecommerce.mapper.CategoryMapper;
+import com.example.ecommerce.mapper.ProductMapper;
+import com.example.ecommerce.model.dto.response.CategoryResponse;
+import com.example.ecommerce.model.dto.response.ProductResponse;
+import com.example.ecommerce.repository.CategoryRepository;
+import com.example.ecommerce.repository.ProductRepository;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+/**
+ * Reloads catalog cache entries in the background once they pass their refresh age. Callers keep
+ * getting the cached value while the reload runs; a null result (row deleted) drops the entry.
+ * Loads run in their own read-only transaction because there is no request around them.
+ */
+@Component
+public class CatalogCacheLoader {
+
+    private final ProductRepository productRepository;
+    private final CategoryRepository categoryRepository;
+    private final TransactionTemplate readOnlyTransaction;
+
+    public CatalogCacheLoader(ProductRepository productRepository,
+                              CategoryRepository categoryRepository,
+                              PlatformTransactionManager transactionManager) {
+        this.productRepository = productRepository;
+        this.categoryRepository = categoryRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    public ProductResponse loadProduct(Object id) {
+        return readOnlyTransaction.execute(status -> productRepository.findWithCategoryById((Long) id)
+                .map(ProductMapper::toProductResponse)
+                .orElse(null));
+    }
+
+    public ProductResponse loadProductByName(Object name) {
+        return readOnlyTransaction.execute(status -> productRepository.findByNameIgnoreCase((String) name)
+                .map(ProductMapper::toProductResponse)
+                .orElse(null));
+    }
+
+    public List<CategoryResponse> loadCategories(Object key) {
+        return readOnlyTransaction.execute(status -> categoryRepository.findAll()
+                .stream()
+                .map(CategoryMapper::toCategoryResponse)
+                .toList());
+    }
+
+    public CategoryResponse loadCategory(Object id) {
+        return readOnlyTransaction.execute(status -> categoryRepository.findCategoryById((Long) id)
+                .map(CategoryMapper::toCategoryResponse)
+                .orElse(null));
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.ecommerce.service.cart;
+
+import com.example.ecommerce.exception.excptions.BadRequestException;
+import com.example.ecommerce.model.dto.request.CartBatchRequest;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Applies a batch of cart operations to product quantities, shared by both cart stores.
+ */
+public class CartOperations {
+
+    private CartOperations() {
+    }
+
+    /**
+     * Returns the quantities after applying the operations in order. Removing a product that is not in
+     * the cart is not an error, so a client can replay the same batch safely.
+     */
+    public static Map<Long, Integer> apply(Map<Long, Integer> current, List<CartBatchRequest.Operation> operations) {
+        Map<Long, Integer> quantities = new LinkedHashMap<>(current);
+        for (CartBatchRequest.Operation operation : operations) {
+            Long productId = operation.getProductId();
+            switch (operation.getOp()) {
+                case ADD -> {
+                    int quantity = requireQuantity(operation, 1);
+                    quantities.merge(productId, quantity, Integer::sum);
+                }
+                case SET -> {
+                    int quantity = requireQuantity(operation, 0);
+                    if (quantity == 0) {
+                        quantities.remove(productId);
+                    } else {
+                        quantities.put(productId, quantity);
+                    }
+                }
+                case REMOVE -> quantities.remove(productId);
+            }
+        }
+        return quantities;
+    }
+
+    private static int requireQuantity(CartBatchRequest.Operation operation, int min) {
+        Integer quantity = operation.getQuantity();
+        if (quantity == null || quantity < min) {
+            throw new BadRequestException(operation.getOp() + " of product " + operation.getProductId()
+                    + " needs a quantity of at least " + min);
+        }
+        return quantity;
+    }
+}
@@ -0,0 +1,134 @@
+package com.example.ecommerce.service.cart;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A user's cart as held by {@link MemoryCartStore}: product id to quantity, in the order the products
+ * were added. Only touched under its shard lock, so it needs no synchronization of its own.
+ */
+public final class MemoryCart {
+
+    private final Long userId;
+    private final Long cartId;
+    private final Map<Long, Line> lines = new LinkedHashMap<>();
+
+    // bumped on every change; the cart is dirty while it differs from the version last written
+    private long version;
+    private long writtenVersion;
+    long lastAccess;
+
+    MemoryCart(Long userId, Long cartId) {
+        this.userId = userId;
+        this.cartId = cartId;
+    }
+
+    static MemoryCart loaded(Long userId, Long cartId, List<CartLine> lines) {
+        MemoryCart cart = new MemoryCart(userId, cartId);
+        for (CartLine line : lines) {
+            cart.lines.put(line.productId(), new Line(line.itemId(), line.quantity()));
+        }
+        return cart;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public Long getCartId() {
+        return cartId;
+    }
+
+    public boolean contains(Long productId) {
+        return lines.containsKey(productId);
+    }
+
+    /**
+     * Quantity of the product in the cart, 0 when it is not in it.
+     */
+    public int quantity(Long productId) {
+        Line line = lines.get(productId);
+        return line == null ? 0 : line.quantity;
+    }
+
+    public boolean isEmpty() {
+        return lines.isEmpty();
+    }
+
+    public void setQuantity(Long productId, int quantity) {
+        Line line = lines.get(productId);
+        if (line == null) {
+            lines.put(productId, new Line(null, quantity));
+        } else if (line.quantity != quantity) {
+            line.quantity = quantity;
+        } else {
+            return;
+        }
+        version++;
+    }
+
+    public void remove(Long productId) {
+        if (lines.remove(productId) != null) {
+            version++;
+        }
+    }
+
+    public void clear() {
+        if (!lines.isEmpty()) {
+            lines.clear();
+            version++;
+        }
+    }
+
+    public Map<Long, Integer> quantities() {
+        Map<Long, Integer> quantities = new LinkedHashMap<>();
+        lines.forEach((productId, line) -> quantities.put(productId, line.quantity));
+        return quantities;
+    }
+
+    public List<CartLine> lines() {
+        List<CartLine> snapshot = new ArrayList<>(lines.size());
+        lines.forEach((productId, line) -> snapshot.add(new CartLine(productId, line.itemId, line.quantity)));
+        return snapshot;
+    }
+
+    boolean isDirty() {
+        return version != writtenVersion;
+    }
+
+    long version() {
+        return version;
+    }
+
+    void markWritten(long writtenVersion, Map<Long, Long> itemIds) {
+        this.writtenVersion = writtenVersion;
+        itemIds.forEach((productId, itemId) -> {
+            Line line = lines.get(productId);
+            if (line != null) {
+                line.itemId = itemId;
+            }
+        });
+    }
+
+    void markDirty() {
+        writtenVersion = -1;
+    }
+
+    /**
+     * {@code itemId} is the cart_items row id, null until the line has been written.
+     */
+    public record CartLine(Long productId, Long itemId, int quantity) {
+    }
+
+    private static final class Line {
+        private Long itemId;
+        private int quantity;
+
+        Line(Long itemId, int quantity) {
+            this.itemId = itemId;
+            this.quantity = quantity;
+        }
+    }
+}
@@ -0,0 +1,399 @@
+package com.example.ecommerce.service.cart;
+
+import com.example.ecommerce.exception.excptions.ResourceNotFoundException;
+import com.example.ecommerce.exception.excptions.ServiceUnavailableException;
+import com.example.ecommerce.model.entity.Cart;
+import com.example.ecommerce.model.entity.CartItem;
+import com.example.ecommerce.model.entity.User;
+import com.example.ecommerce.repository.CartRepository;
+import com.example.ecommerce.repository.ProductRepository;
+import com.example.ecommerce.repository.UserRepository;
+import com.example.ecommerce.util.AfterCommit;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Active carts kept in memory for {@code app.cart.store=memory}, with changes written to the carts and
+ * cart_items tables behind the requests that made them. Carts are sharded by user id; a shard's lock
+ * guards its carts and is only held in memory. A write copies the dirty carts under that lock, writes the
+ * copies without it and takes it again to record the version written, so requests never wait on the
+ * database. Writes of a shard are serialized among themselves, so two of them never insert the same line.
+ * <p>
+ * Dirty carts are written on a schedule, one transaction per shard, and on shutdown; carts idle for
+ * {@code app.cart.memory.idle-ttl} are dropped once written. Changes made since the last write are lost
+ * if the process dies, and every request of a user must reach the same instance.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "app.cart.store", havingValue = "memory")
+public class MemoryCartStore {
+
+    private static final int SHUTDOWN_ATTEMPTS = 3;
+
+    private final CartRepository cartRepository;
+    private final UserRepository userRepository;
+    private final ProductRepository productRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Shard[] shards;
+    private final long idleTtlMillis;
+    private volatile boolean closed;
+
+    public MemoryCartStore(CartRepository cartRepository,
+                           UserRepository userRepository,
+                           ProductRepository productRepository,
+                           PlatformTransactionManager transactionManager,
+                           @Value("${app.cart.memory.shards:64}") int shardCount,
+                           @Value("${app.cart.memory.idle-ttl:30m}") Duration idleTtl) {
+        this.cartRepository = cartRepository;
+        this.userRepository = userRepository;
+        this.productRepository = productRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.shards = new Shard[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            shards[i] = new Shard();
+        }
+        this.idleTtlMillis = idleTtl.toMillis();
+    }
+
+    /**
+     * Runs {@code action} on the user's cart under its shard lock, loading the cart from the database,
+     * or creating it, on first use. Whatever the action changes is written by the next flush.
+     */
+    public <T> T update(Long userId, Function<MemoryCart, T> action) {
+        Shard shard = shard(userId);
+        shard.lock.lock();
+        try {
+            ensureOpen();
+            MemoryCart cart = shard.carts.get(userId);
+            if (cart != null) {
+                cart.lastAccess = System.currentTimeMillis();
+                return action.apply(cart);
+            }
+        } finally {
+            shard.lock.unlock();
+        }
+
+        // not cached: the database is current, read it without holding up the rest of the shard
+        MemoryCart loaded = load(userId);
+        shard.lock.lock();
+        try {
+            ensureOpen();
+            MemoryCart cart = shard.carts.putIfAbsent(userId, loaded);
+            if (cart == null) {
+                cart = loaded;
+            }
+            cart.lastAccess = System.currentTimeMillis();
+            return action.apply(cart);
+        } finally {
+            shard.lock.unlock();
+        }
+    }
+
+    /**
+     * Writes the user's cart in the current transaction, so the caller can read it from the tables.
+     * The cart counts as written unless that transaction rolls back.
+     */
+    public void writeNow(Long userId) {
+        Shard shard = shard(userId);
+        shard.writeLock.lock();
+        try {
+            Snapshot snapshot = withShard(shard, carts -> {
+                MemoryCart cart = carts.get(userId);
+                return cart == null || !cart.isDirty() ? null : Snapshot.of(cart);
+            });
+            if (snapshot == null) {
+                return;
+            }
+            apply(shard, write(List.of(snapshot)));
+            if (TransactionSynchronizationManager.isSynchronizationActive()) {
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCompletion(int status) {
+                        if (status != STATUS_COMMITTED) {
+                            withShard(userId, MemoryCart::markDirty);
+                        }
+                    }
+                });
+            }
+        } finally {
+            shard.writeLock.unlock();
+        }
+    }
+
+    /**
+     * Once the current transaction commits, takes the ordered products out of the user's cart, whose
+     * rows checkout has already deleted. Lines changed since they were ordered are kept and written again.
+     */
+    public void checkedOut(Long userId, Map<Long, Integer> orderedQuantities) {
+        AfterCommit.run(() -> withShard(userId, cart -> {
+            orderedQuantities.forEach((productId, quantity) -> {
+                if (cart.quantity(productId) == quantity) {
+                    cart.remove(productId);
+                }
+            });
+            if (cart.isEmpty()) {
+                cart.markWritten(cart.version(), Map.of());
+            } else {
+                cart.markDirty();
+            }
+        }));
+    }
+
+    /**
+     * Drops the user's cart without writing it, for a user whose rows are gone.
+     */
+    public void evict(Long userId) {
+        withShard(shard(userId), carts -> carts.remove(userId));
+    }
+
+    @Scheduled(initialDelayString = "${app.cart.memory.flush-ms:5000}", fixedDelayString = "${app.cart.memory.flush-ms:5000}")
+    public void flush() {
+        long idleBefore = System.currentTimeMillis() - idleTtlMillis;
+        for (Shard shard : shards) {
+            shard.writeLock.lock();
+            try {
+                flush(shard);
+                withShard(shard, carts -> carts.values().removeIf(cart -> !cart.isDirty() && cart.lastAccess < idleBefore));
+            } finally {
+                shard.writeLock.unlock();
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        closed = true;
+        for (int attempt = 1; attempt <= SHUTDOWN_ATTEMPTS && dirtyCount() > 0; attempt++) {
+            flush();
+        }
+        for (Shard shard : shards) {
+            shard.lock.lock();
+            try {
+                shard.carts.values().stream()
+                        .filter(MemoryCart::isDirty)
+                        .forEach(cart -> log.error("Cart changes of user {} could not be written: {}",
+                                cart.getUserId(), cart.lines()));
+            } finally {
+                shard.lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Writes the shard's dirty carts. The caller holds the shard's write lock but not its lock.
+     */
+    private void flush(Shard shard) {
+        List<Snapshot> dirty = withShard(shard, carts -> carts.values().stream()
+                .filter(MemoryCart::isDirty)
+                .map(Snapshot::of)
+                .toList());
+        if (dirty.isEmpty()) {
+            return;
+        }
+        try {
+            apply(shard, write(dirty));
+            return;
+        } catch (RuntimeException e) {
+            log.warn("Cannot write {} carts together, writing them one by one: {}", dirty.size(), e.getMessage());
+        }
+        for (Snapshot snapshot : dirty) {
+            try {
+                apply(shard, write(List.of(snapshot)));
+            } catch (DataIntegrityViolationException e) {
+                // e.g. a product that no longer exists; retrying would fail the same way
+                MemoryCart cart = snapshot.cart();
+                log.error("Dropping unwritable cart changes of user {} {}: {}", cart.getUserId(), snapshot.lines(), e.getMessage());
+                withShard(shard, carts -> carts.remove(cart.getUserId(), cart));
+            } catch (RuntimeException e) {
+                log.warn("Cannot write carts, keeping them for the next flush: {}", e.getMessage());
+                return;
+            }
+        }
+    }
+
+    /**
+     * Writes the full state of each snapshot: changed quantities are updated, new lines inserted and
+     * lines no longer in memory deleted. The caller holds the shard's write lock but not its lock.
+     */
+    private List<Written> write(List<Snapshot> snapshots) {
+        return transactionTemplate.execute(status -> {
+            Map<Long, Cart> entities = new HashMap<>();
+            List<Long> cartIds = snapshots.stream().map(snapshot -> snapshot.cart().getCartId()).toList();
+            for (Cart cart : cartRepository.findWithItemsByIdIn(cartIds)) {
+                entities.put(cart.getId(), cart);
+            }
+
+            List<Written> written = new ArrayList<>(snapshots.size());
+            Map<Snapshot, Map<Long, CartItem>> created = new HashMap<>();
+            for (Snapshot snapshot : snapshots) {
+                MemoryCart memory = snapshot.cart();
+                Cart cart = entities.get(memory.getCartId());
+                if (cart == null) {
+                    log.warn("Cart {} of user {} no longer exists, its changes are dropped", memory.getCartId(), memory.getUserId());
+                    written.add(Written.deleted(snapshot));
+                    continue;
+                }
+                Map<Long, CartItem> stale = new HashMap<>();
+                for (CartItem item : cart.getCartItems()) {
+                    stale.put(item.getProduct().getId(), item);
+                }
+                Map<Long, CartItem> added = new HashMap<>();
+                for (MemoryCart.CartLine line : snapshot.lines()) {
+                    CartItem item = stale.remove(line.productId());
+                    if (item == null) {
+                        item = new CartItem();
+                        item.setCart(cart);
+                        item.setProduct(productRepository.getReferenceById(line.productId()));
+                        item.setQuantity(line.quantity());
+                        cart.getCartItems().add(item);
+                        added.put(line.productId(), item);
+                    } else if (item.getQuantity() != line.quantity()) {
+                        item.setQuantity(line.quantity());
+                    }
+                }
+                cart.getCartItems().removeAll(stale.values());
+                created.put(snapshot, added);
+            }
+            cartRepository.flush();
+
+            for (Map.Entry<Snapshot, Map<Long, CartItem>> entry : created.entrySet()) {
+                Map<Long, Long> itemIds = new HashMap<>();
+                entry.getValue().forEach((productId, item) -> itemIds.put(productId, item.getId()));
+                Snapshot snapshot = entry.getKey();
+                written.add(new Written(snapshot.cart(), snapshot.version(), itemIds, false));
+            }
+            return written;
+        });
+    }
+
+    /**
+     * Records what was written on the carts that are still held. A cart whose row is gone is evicted, so
+     * its next use loads or creates the cart again instead of writing to the missing row forever.
+     */
+    private void apply(Shard shard, List<Written> written) {
+        withShard(shard, carts -> {
+            for (Written entry : written) {
+                MemoryCart cart = entry.cart();
+                if (carts.get(cart.getUserId()) != cart) {
+                    continue;
+                }
+                if (entry.cartDeleted()) {
+                    carts.remove(cart.getUserId());
+                } else {
+                    cart.markWritten(entry.version(), entry.itemIds());
+                }
+            }
+            return null;
+        });
+    }
+
+    private MemoryCart load(Long userId) {
+        return transactionTemplate.execute(status -> {
+            Cart cart = cartRepository.findWithItemsByUserId(userId).orElseGet(() -> {
+                User user = userRepository.findById(userId)
+                        .orElseThrow(() -> new ResourceNotFoundException("User", "id", userId));
+                Cart created = new Cart();
+                created.setUser(user);
+                created.setCartItems(new HashSet<>());
+                return cartRepository.save(created);
+            });
+            List<MemoryCart.CartLine> lines = cart.getCartItems().stream()
+                    .map(item -> new MemoryCart.CartLine(item.getProduct().getId(), item.getId(), item.getQuantity()))
+                    .toList();
+            return MemoryCart.loaded(userId, cart.getId(), lines);
+        });
+    }
+
+    private static <T> T withShard(Shard shard, Function<Map<Long, MemoryCart>, T> action) {
+        shard.lock.lock();
+        try {
+            return action.apply(shard.carts);
+        } finally {
+            shard.lock.unlock();
+        }
+    }
+
+    private void withShard(Long userId, Consumer<MemoryCart> action) {
+        Shard shard = shard(userId);
+        shard.lock.lock();
+        try {
+            MemoryCart cart = shard.carts.get(userId);
+            if (cart != null) {
+                action.accept(cart);
+            }
+        } finally {
+            shard.lock.unlock();
+        }
+    }
+
+    private long dirtyCount() {
+        long count = 0;
+        for (Shard shard : shards) {
+            shard.lock.lock();
+            try {
+                count += shard.carts.values().stream().filter(MemoryCart::isDirty).count();
+            } finally {
+                shard.lock.unlock();
+            }
+        }
+        return count;
+    }
+
+    private void ensureOpen() {
+        if (closed) {
+            throw new ServiceUnavailableException("The cart store is shutting down, please retry shortly");
+        }
+    }
+
+    private Shard shard(Long userId) {
+        return shards[Math.floorMod(Long.hashCode(userId), shards.length)];
+    }
+
+    private static final class Shard {
+        // guards the carts; never held while the database is read or written
+        private final ReentrantLock lock = new ReentrantLock();
+        // serializes the shard's writes; taken before lock, never while holding it
+        private final ReentrantLock writeLock = new ReentrantLock();
+        private final Map<Long, MemoryCart> carts = new HashMap<>();
+    }
+
+    /**
+     * A cart's lines as of {@code version}, copied under the shard lock so they can be written without it.
+     */
+    private record Snapshot(MemoryCart cart, long version, List<MemoryCart.CartLine> lines) {
+
+        static Snapshot of(MemoryCart cart) {
+            return new Snapshot(cart, cart.version(), cart.lines());
+        }
+    }
+
+    /**
+     * The version a cart was written at and the ids of its newly inserted lines, or that its row no
+     * longer exists. A cart changed while it was written stays dirty, as its version has moved on.
+     */
+    private record Written(MemoryCart cart, long version, Map<Long, Long> itemIds, boolean cartDeleted) {
+
+        static Written deleted(Snapshot snapshot) {
+            return new Written(snapshot.cart(), snapshot.version(), Map.of(), true);
+        }
+    }
+}
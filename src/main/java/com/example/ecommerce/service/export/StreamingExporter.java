@@ -0,0 +1,213 @@
+package com.example.ecommerce.service.export;
+
+import com.example.ecommerce.exception.excptions.ServiceUnavailableException;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Writes a repository stream to the response as NDJSON or CSV, one row at a time. The rows come from a
+ * server-side cursor inside a read-only transaction and are written as they are read, so memory stays
+ * flat whatever the table size. A slow client blocks the socket write, which in turn stops the cursor
+ * from reading ahead.
+ * <p>
+ * Every running export holds a pooled connection until it finishes, so only a few may run at once;
+ * the rest get a 503 before anything is written.
+ */
+@Component
+public class StreamingExporter {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final TransactionTemplate readOnlyTransaction;
+    private final ObjectMapper objectMapper;
+    private final ObjectWriter rowWriter;
+    private final Semaphore permits;
+    private final int flushEvery;
+
+    public StreamingExporter(PlatformTransactionManager transactionManager,
+                             ObjectMapper objectMapper,
+                             @Value("${app.export.max-concurrent:1}") int maxConcurrent,
+                             @Value("${app.export.flush-every:500}") int flushEvery) {
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.objectMapper = objectMapper;
+        this.rowWriter = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        this.permits = new Semaphore(maxConcurrent);
+        this.flushEvery = Math.max(1, flushEvery);
+    }
+
+    /**
+     * One JSON document per line.
+     */
+    public <T> StreamingResponseBody ndjson(Supplier<Stream<T>> rows) {
+        return stream(rows, writer -> {
+            JsonGenerator generator = objectMapper.getFactory().createGenerator(writer);
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.setRootValueSeparator(null);
+            return new RowEncoder<T>() {
+                @Override
+                public void write(T row) throws IOException {
+                    rowWriter.writeValue(generator, row);
+                    generator.writeRaw('\n');
+                }
+
+                @Override
+                public void flush() throws IOException {
+                    generator.flush();
+                }
+            };
+        });
+    }
+
+    /**
+     * RFC 4180 CSV with a header line; {@code columns} must return the values in header order.
+     */
+    public <T> StreamingResponseBody csv(Supplier<Stream<T>> rows, List<String> header,
+                                         Function<T, List<?>> columns) {
+        return stream(rows, writer -> {
+            writeCsvLine(writer, header);
+            return new RowEncoder<T>() {
+                @Override
+                public void write(T row) throws IOException {
+                    writeCsvLine(writer, columns.apply(row));
+                }
+
+                @Override
+                public void flush() throws IOException {
+                    writer.flush();
+                }
+            };
+        });
+    }
+
+    private <T> StreamingResponseBody stream(Supplier<Stream<T>> rows, EncoderFactory<T> encoders) {
+        if (!permits.tryAcquire()) {
+            throw new ServiceUnavailableException("Another export is running, please retry shortly");
+        }
+        Permit permit = new Permit();
+        releaseOnAsyncCompletion(permit);
+        return out -> {
+            try {
+                Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE);
+                RowEncoder<T> encoder = encoders.open(writer);
+                readOnlyTransaction.executeWithoutResult(status -> {
+                    try (Stream<T> stream = rows.get()) {
+                        Iterator<T> iterator = stream.iterator();
+                        long written = 0;
+                        while (iterator.hasNext()) {
+                            encoder.write(iterator.next());
+                            if (++written % flushEvery == 0) {
+                                encoder.flush();
+                            }
+                        }
+                        encoder.flush();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                // usually the client went away; let the container see the original IOException
+                throw e.getCause();
+            } finally {
+                permit.release();
+            }
+        };
+    }
+
+    /**
+     * The body may never run: the client can disconnect before the async dispatch, or the request can
+     * fail or time out first. Completing the async request releases the permit in every case.
+     */
+    private void releaseOnAsyncCompletion(Permit permit) {
+        if (RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes) {
+            WebAsyncUtils.getAsyncManager(attributes.getRequest())
+                    .registerCallableInterceptor(Permit.class, new CallableProcessingInterceptor() {
+                        @Override
+                        public <V> void afterCompletion(NativeWebRequest request, Callable<V> task) {
+                            permit.release();
+                        }
+                    });
+        }
+    }
+
+    private static void writeCsvLine(Writer writer, List<?> values) throws IOException {
+        for (int i = 0; i < values.size(); i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            writer.write(csvField(values.get(i)));
+        }
+        writer.write("\r\n");
+    }
+
+    private static String csvField(Object value) {
+        if (value == null) {
+            return "";
+        }
+        if (value instanceof BigDecimal decimal) {
+            return decimal.toPlainString();
+        }
+        String text = value.toString();
+        if (value instanceof String && !text.isEmpty() && "=+-@".indexOf(text.charAt(0)) >= 0) {
+            // keep spreadsheets from evaluating user-entered text as a formula
+            text = "'" + text;
+        }
+        if (text.indexOf(',') >= 0 || text.indexOf('"') >= 0 || text.indexOf('\n') >= 0 || text.indexOf('\r') >= 0) {
+            return '"' + text.replace("\"", "\"\"") + '"';
+        }
+        return text;
+    }
+
+    /**
+     * One acquired export slot; releasing it more than once has no effect.
+     */
+    private final class Permit {
+
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        void release() {
+            if (released.compareAndSet(false, true)) {
+                permits.release();
+            }
+        }
+    }
+
+    private interface RowEncoder<T> {
+        void write(T row) throws IOException;
+
+        void flush() throws IOException;
+    }
+
+    @FunctionalInterface
+    private interface EncoderFactory<T> {
+        RowEncoder<T> open(Writer writer) throws IOException;
+    }
+}
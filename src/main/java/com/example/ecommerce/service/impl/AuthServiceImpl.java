@@ -1,6 +1,9 @@
 package com.example.ecommerce.service.impl;
 
+import com.example.ecommerce.config.AccessTokenRevocationList;
 import com.example.ecommerce.config.JwtUtil;
+import com.example.ecommerce.config.LoginThrottle;
+import com.example.ecommerce.config.PasswordHasher;
 import com.example.ecommerce.exception.excptions.DuplicateResourceException;
 import com.example.ecommerce.exception.excptions.ResourceNotFoundException;
 import com.example.ecommerce.exception.excptions.UnauthorizedException;
@@ -14,6 +17,8 @@ import com.example.ecommerce.model.entity.User;
 import com.example.ecommerce.model.enums.Role;
 import com.example.ecommerce.repository.UserRepository;
 import com.example.ecommerce.service.AuthService;
+import com.example.ecommerce.service.RefreshTokenService;
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.http.Cookie;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
@@ -24,11 +29,9 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseCookie;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.time.LocalDateTime;
 import java.util.Collections;
 import java.util.List;
 
@@ -41,10 +44,13 @@ public class AuthServiceImpl implements AuthService {
     private int cookieExpiration;
 
     private final UserRepository userRepository;
-    private final PasswordEncoder passwordEncoder;
+    private final PasswordHasher passwordHasher;
+    private final LoginThrottle loginThrottle;
     private final JwtUtil jwtUtil;
+    private final RefreshTokenService refreshTokenService;
+    private final AccessTokenRevocationList revocationList;
 
-    @Transactional
+    // not transactional: no pooled connection is held while the password is hashed
     @Override
     public UserResponse register(UserRegisterRequest req) {
         if (userRepository.findByEmail(req.getEmail()).isPresent()) {
@@ -52,7 +58,7 @@ public class AuthServiceImpl implements AuthService {
         }
         User u = new User();
         u.setEmail(req.getEmail());
-        u.setPassword(passwordEncoder.encode(req.getPassword()));
+        u.setPassword(passwordHasher.encode(req.getPassword()));
         u.setRole(Role.USER);
         u.setFullName(req.getFullName());
         u.setImageUrl(req.getImageUrl());
@@ -60,26 +66,33 @@ public class AuthServiceImpl implements AuthService {
         return UserMapper.toUserResponse(u);
     }
 
-    @Transactional
+    // not transactional: no pooled connection is held while the password is verified
     @Override
-    public JwtResponse login(UserRequestLogin req, HttpServletResponse response) {
+    public JwtResponse login(UserRequestLogin req, HttpServletRequest request, HttpServletResponse response) {
+        String email = req.getEmail().trim();
+        loginThrottle.checkAllowed(email, request.getRemoteAddr());
 
-        User user = userRepository.findByEmail(req.getEmail().trim())
-                .orElseThrow(() -> new ResourceNotFoundException("User", "email", req.getEmail()));
+        User user;
+        try {
+            user = userRepository.findByEmail(email)
+                    .orElseThrow(() -> new ResourceNotFoundException("User", "email", req.getEmail()));
 
-        if (!this.passwordEncoder.matches(req.getPassword().trim(), user.getPassword())) {
-            throw new UnauthorizedException("Invalid credentials");
+            if (!passwordHasher.matches(req.getPassword().trim(), user.getPassword())) {
+                throw new UnauthorizedException("Invalid credentials");
+            }
+        } catch (ResourceNotFoundException | UnauthorizedException e) {
+            // unknown accounts count too, or guessing emails would never be throttled; a busy hash pool
+            // (503) or a database error says nothing about the credentials and is not counted
+            loginThrottle.recordFailure(email);
+            throw e;
         }
+        loginThrottle.recordSuccess(email);
+        rehashIfOutdated(user, req.getPassword().trim());
         // Generate JWT token
         String jwt = jwtUtil.generateTokenWithRoles(user.getEmail(), List.of(user.getRole().name()));
 
-        // Generate refresh token
-        String refreshToken = jwtUtil.generateRefreshTokenFromUsername(user.getEmail());
-
-        // Save refresh token to user
-        user.setRefreshToken(refreshToken);
-        user.setRefreshTokenExpiryDate(LocalDateTime.now().plusDays(7)); // 7 days expiry
-        userRepository.save(user);
+        // Generate refresh token (stored hashed in its own table, the users row is not touched)
+        String refreshToken = refreshTokenService.issue(user);
 
         addTokenToHeader(response, jwt, refreshToken);
 
@@ -101,10 +114,15 @@ public class AuthServiceImpl implements AuthService {
         User user = userRepository.findByEmail(email)
                 .orElseThrow(() -> new ResourceNotFoundException("User", "email", email));
 
-        // Clear refresh token
-        user.setRefreshToken(null);
-        user.setRefreshTokenExpiryDate(null);
-        userRepository.save(user);
+        // Revoke every refresh token of the user
+        refreshTokenService.revokeAll(user.getId());
+
+        // Revoke the access token of this session until it expires
+        String accessToken = jwtUtil.resolveToken(request);
+        Claims claims = accessToken != null ? jwtUtil.getValidClaims(accessToken) : null;
+        if (claims != null) {
+            revocationList.revoke(claims.getId(), claims.getExpiration());
+        }
 
         // Retrieve all cookies from the request
         Cookie[] cookies = request.getCookies();
@@ -146,6 +164,19 @@ public class AuthServiceImpl implements AuthService {
         SecurityContextHolder.clearContext();
     }
 
+    private void rehashIfOutdated(User user, String rawPassword) {
+        if (!passwordHasher.upgradeEncoding(user.getPassword())) {
+            return;
+        }
+        Long userId = user.getId();
+        passwordHasher.encodeAsync(rawPassword)
+                .thenAccept(hash -> userRepository.updatePassword(userId, hash))
+                .exceptionally(ex -> {
+                    log.warn("Password rehash skipped for user {}: {}", userId, ex.getMessage());
+                    return null;
+                });
+    }
+
     @Override
     public void addTokenToHeader(HttpServletResponse response, String jwtToken, String refreshToken) {
         // Use ResponseCookie to set SameSite=None; Secure for cross-site requests from Azure Static Web Apps
@@ -173,37 +204,20 @@ public class AuthServiceImpl implements AuthService {
         response.addHeader(HttpHeaders.AUTHORIZATION, "Bearer " + jwtToken);
     }
 
-    @Transactional
     @Override
     public JwtResponse refreshToken(TokenRefreshRequest request) {
-        String requestRefreshToken = request.getRefreshToken();
-
-        // Find user by refresh token
-        User user = userRepository.findByRefreshToken(requestRefreshToken)
-                .orElseThrow(() -> new UnauthorizedException("Invalid refresh token"));
-
-        // Check if refresh token is expired
-        if (user.getRefreshTokenExpiryDate().isBefore(LocalDateTime.now())) {
-            user.setRefreshToken(null);
-            user.setRefreshTokenExpiryDate(null);
-            userRepository.save(user);
-            throw new UnauthorizedException("Refresh token expired. Please login again");
-        }
-
-        // Generate new JWT token
-        String newToken = jwtUtil.generateTokenFromUserName(user.getEmail());
-
-        // Generate new refresh token
-        String newRefreshToken = jwtUtil.generateRefreshTokenFromUsername(user.getEmail());
-
-        // Update refresh token in database
-        user.setRefreshToken(newRefreshToken);
-        user.setRefreshTokenExpiryDate(LocalDateTime.now().plusDays(7)); // 7 days expiry
-        userRepository.save(user);
+        // Single indexed lookup by token hash; rotates the token and detects reuse
+        RefreshTokenService.RotatedToken rotated = refreshTokenService.rotate(request.getRefreshToken());
+        User user = rotated.user();
 
         // Get user roles
         List<String> roles = List.of(user.getRole().name());
 
+        // Generate new JWT token (roles are needed to build the principal without a user lookup)
+        String newToken = jwtUtil.generateTokenWithRoles(user.getEmail(), roles);
+
+        String newRefreshToken = rotated.refreshToken();
+
         return JwtResponse.builder()
                 .token(newToken)
                 .refreshToken(newRefreshToken)
@@ -4,6 +4,7 @@ import com.example.ecommerce.exception.excptions.CartEmptyException;
 import com.example.ecommerce.exception.excptions.InsufficientStockException;
 import com.example.ecommerce.exception.excptions.ResourceNotFoundException;
 import com.example.ecommerce.mapper.CartMapper;
+import com.example.ecommerce.model.dto.request.CartBatchRequest;
 import com.example.ecommerce.model.dto.request.CartItemRequest;
 import com.example.ecommerce.model.dto.response.CartResponse;
 import com.example.ecommerce.model.entity.Cart;
@@ -15,19 +16,32 @@ import com.example.ecommerce.repository.CartRepository;
 import com.example.ecommerce.repository.ProductRepository;
 import com.example.ecommerce.repository.UserRepository;
 import com.example.ecommerce.service.CartService;
+import com.example.ecommerce.service.cart.CartOperations;
 import com.example.ecommerce.util.AssistantHelper;
 import com.example.ecommerce.util.MessageResponse;
 import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 
 
+/**
+ * Default cart store: every change is written to the cart tables in the request's transaction.
+ */
 @Service
 @RequiredArgsConstructor
+@ConditionalOnProperty(name = "app.cart.store", havingValue = "jpa", matchIfMissing = true)
 public class CartServiceImpl implements CartService {
 
     private final CartRepository cartRepository;
@@ -75,7 +89,7 @@ public class CartServiceImpl implements CartService {
             throw new InsufficientStockException("the quantity must be greater than zero");
         }
 
-        Cart cart = cartRepository.findByUser_Id(userId)
+        Cart cart = cartRepository.findWithItemsByUserId(userId)
                 .orElseGet(() -> createNewCartById(userId));
 
         Product product = productRepository.findById(cartItemRequest.getProductId())
@@ -83,9 +97,7 @@ public class CartServiceImpl implements CartService {
 
         checkStockAvailability(product, cartItemRequest.getQuantity());
 
-        Optional<CartItem> existingItem = cart.getCartItems().stream()
-                .filter(item -> item.getProduct().getId().equals(product.getId()))
-                .findFirst();
+        Optional<CartItem> existingItem = findItem(cart, product.getId());
 
         if (existingItem.isPresent()) {
             CartItem item = existingItem.get();
@@ -112,18 +124,20 @@ public class CartServiceImpl implements CartService {
     }
 
     @Override
+    @Transactional
     public CartResponse getCartByUserId(Long userId) {
 
-        Cart cart = cartRepository.findByUser_Id(userId)
+        Cart cart = cartRepository.findWithItemsByUserId(userId)
                 .orElseGet(() -> createNewCartById(userId));
 
         return CartMapper.toCartResponse(cart);
     }
 
     @Override
+    @Transactional
     public CartResponse getCartByEmail(String email) {
 
-        Cart cart = cartRepository.findByUser_Email(email)
+        Cart cart = cartRepository.findWithItemsByUserEmail(email)
                 .orElseGet(() -> createNewCartByEmail(email));
 
         return CartMapper.toCartResponse(cart);
@@ -140,13 +154,13 @@ public class CartServiceImpl implements CartService {
         User user = userRepository.findByEmail(email)
                 .orElseThrow(() -> new ResourceNotFoundException("User", "email", email));
 
-        Cart cart = cartRepository.findByUser_Id(user.getId())
+        Cart cart = cartRepository.findWithItemsByUserId(user.getId())
                 .orElseThrow(() -> new ResourceNotFoundException("Cart", "user", email));
 
         Product product = productRepository.findById(productId)
                 .orElseThrow(() -> new ResourceNotFoundException("Product", "id", productId));
 
-        CartItem item = cartItemRepository.findByCartIdAndProductId(cart.getId(), productId)
+        CartItem item = findItem(cart, productId)
                 .orElseThrow(() -> new ResourceNotFoundException("CartItem", "productId", productId));
 
         if (req.getQuantity() == 0) {
@@ -163,6 +177,65 @@ public class CartServiceImpl implements CartService {
         return CartMapper.toCartResponse(savedCart);
     }
 
+    /**
+     * Applies the operations in order and saves the result in one transaction, loading the products
+     * they change with one query. Stock is checked against each changed line's final quantity; if any
+     * check fails, nothing is applied.
+     */
+    @Transactional
+    @Override
+    public CartResponse applyOperations(String email, CartBatchRequest request) {
+
+        Cart cart = cartRepository.findWithItemsByUserEmail(email)
+                .orElseGet(() -> createNewCartByEmail(email));
+
+        Map<Long, CartItem> items = new HashMap<>();
+        Map<Long, Integer> current = new LinkedHashMap<>();
+        for (CartItem item : cart.getCartItems()) {
+            items.put(item.getProduct().getId(), item);
+            current.put(item.getProduct().getId(), item.getQuantity());
+        }
+        Map<Long, Integer> quantities = CartOperations.apply(current, request.getOperations());
+
+        List<Long> changed = quantities.entrySet().stream()
+                .filter(entry -> !entry.getValue().equals(current.get(entry.getKey())))
+                .map(Map.Entry::getKey)
+                .toList();
+        Map<Long, Product> products = productRepository.findAllById(changed).stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+        for (Long productId : changed) {
+            Product product = products.get(productId);
+            if (product == null) {
+                throw new ResourceNotFoundException("Product", "id", productId);
+            }
+            checkStockAvailability(product, quantities.get(productId));
+        }
+
+        items.forEach((productId, item) -> {
+            if (!quantities.containsKey(productId)) {
+                cart.getCartItems().remove(item);
+                cartItemRepository.delete(item);
+            }
+        });
+        List<CartItem> newItems = new ArrayList<>();
+        for (Long productId : changed) {
+            CartItem item = items.get(productId);
+            if (item != null) {
+                item.setQuantity(quantities.get(productId));
+            } else {
+                CartItem newItem = new CartItem();
+                newItem.setCart(cart);
+                newItem.setProduct(products.get(productId));
+                newItem.setQuantity(quantities.get(productId));
+                newItems.add(newItem);
+            }
+        }
+        cart.getCartItems().addAll(cartItemRepository.saveAll(newItems));
+
+        Cart savedCart = cartRepository.save(cart);
+        return CartMapper.toCartResponse(savedCart);
+    }
+
     @Transactional
     @Override
     public MessageResponse deleteCartItem(Long cartItemId) {
@@ -183,10 +256,10 @@ public class CartServiceImpl implements CartService {
         User user = userRepository.findByEmail(email)
                 .orElseThrow(() -> new ResourceNotFoundException("User", "email", email));
 
-        Cart cart = cartRepository.findByUser_Id(user.getId())
+        Cart cart = cartRepository.findWithItemsByUserId(user.getId())
                 .orElseThrow(() -> new ResourceNotFoundException("Cart", "user", email));
 
-        CartItem item = cartItemRepository.findByCartIdAndProductId(cart.getId(), productId)
+        CartItem item = findItem(cart, productId)
                 .orElseThrow(() -> new ResourceNotFoundException("CartItem", "productId", productId));
 
         String productName = item.getProduct().getName();
@@ -218,31 +291,28 @@ public class CartServiceImpl implements CartService {
 
 
 
-    private void checkStockAvailability(Product product, int requestedQuantity) {
-        if (product.getStockQuantity() < requestedQuantity) {
-            throw new InsufficientStockException(product.getName(), requestedQuantity, product.getStockQuantity());
-        }
+    @Override
+    public void syncCart(String email) {
+        // changes are written as they are made
     }
 
+    @Override
+    public void checkedOut(String email, Map<Long, Integer> orderedQuantities) {
+        // checkout cleared the rows, nothing else holds the cart
+    }
 
-    public void validateCartStockAvailability(Cart cart) {
-
-        if (cart.getCartItems().isEmpty()) {
-            throw new CartEmptyException("cannot validate stock for an empty cart");
-        }
-
-        for (CartItem cartItem : cart.getCartItems()) {
-            Product product = cartItem.getProduct();
-            int requestedQuantity = cartItem.getQuantity();
-
-            Product freshProduct = productRepository.findById(product.getId())
-                    .orElseThrow(() -> new ResourceNotFoundException("Product", "id", product.getId()));
+    /**
+     * Looks the item up in the already loaded cart instead of querying cart_items again.
+     */
+    private Optional<CartItem> findItem(Cart cart, Long productId) {
+        return cart.getCartItems().stream()
+                .filter(item -> item.getProduct().getId().equals(productId))
+                .findFirst();
+    }
 
-            if (freshProduct.getStockQuantity() < requestedQuantity) {
-                throw new InsufficientStockException(freshProduct.getName(), requestedQuantity, freshProduct.getStockQuantity());
-            }
+    private void checkStockAvailability(Product product, int requestedQuantity) {
+        if (product.getStockQuantity() < requestedQuantity) {
+            throw new InsufficientStockException(product.getName(), requestedQuantity, product.getStockQuantity());
         }
-
     }
 }
-
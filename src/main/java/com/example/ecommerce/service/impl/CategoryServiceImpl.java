@@ -1,5 +1,6 @@
 package com.example.ecommerce.service.impl;
 
+import com.example.ecommerce.config.CacheNames;
 import com.example.ecommerce.exception.excptions.DuplicateResourceException;
 import com.example.ecommerce.exception.excptions.ResourceNotFoundException;
 import com.example.ecommerce.mapper.CategoryMapper;
@@ -8,9 +9,13 @@ import com.example.ecommerce.model.dto.response.CategoryResponse;
 import com.example.ecommerce.model.entity.Category;
 import com.example.ecommerce.repository.CategoryRepository;
 import com.example.ecommerce.service.CategoryService;
+import com.example.ecommerce.service.cache.CatalogCacheEvictor;
+import com.example.ecommerce.service.search.ProductSearchIndex;
 import com.example.ecommerce.util.MessageResponse;
 import lombok.RequiredArgsConstructor;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Optional;
@@ -21,6 +26,8 @@ import java.util.stream.Collectors;
 public class CategoryServiceImpl implements CategoryService {
 
     private final CategoryRepository categoryRepository;
+    private final CatalogCacheEvictor cacheEvictor;
+    private final ProductSearchIndex searchIndex;
 
     @Override
     public CategoryResponse createCategory(CategoryRequest categoryRequest) {
@@ -30,10 +37,14 @@ public class CategoryServiceImpl implements CategoryService {
         }
         Category category1 = CategoryMapper.toCategory(categoryRequest);
         Category savedCategory = categoryRepository.save(category1);
+        cacheEvictor.evictCategories();
+        searchIndex.putCategory(savedCategory.getId(), savedCategory.getName());
         return CategoryMapper.toCategoryResponse(savedCategory);
     }
 
     @Override
+    @Cacheable(cacheNames = CacheNames.CATEGORIES, key = "'all'", sync = true)
+    @Transactional(readOnly = true)
     public List<CategoryResponse> getAllCategories() {
         return categoryRepository.findAll()
                 .stream()
@@ -42,6 +53,8 @@ public class CategoryServiceImpl implements CategoryService {
     }
 
     @Override
+    @Cacheable(cacheNames = CacheNames.CATEGORY_BY_ID, key = "#id", sync = true)
+    @Transactional(readOnly = true)
     public CategoryResponse getCategoryById(Long id) {
         Optional<Category> category = categoryRepository.findCategoryById(id);
         if (category.isPresent()){
@@ -52,6 +65,7 @@ public class CategoryServiceImpl implements CategoryService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public CategoryResponse getCategoryByName(String name) {
         Optional<Category> category = categoryRepository.findCategoryByNameIgnoreCase(name);
         if (category.isPresent()){
@@ -65,6 +79,9 @@ public class CategoryServiceImpl implements CategoryService {
     public MessageResponse deleteCategory(Long id) {
         if (categoryRepository.existsById(id)) {
             categoryRepository.deleteById(id);
+            cacheEvictor.evictCategories();
+            cacheEvictor.evictAllProducts();
+            searchIndex.removeCategory(id);
             return new MessageResponse("Category with id '" + id + "' has been deleted.");
         } else {
             throw new ResourceNotFoundException("Category with id '" + id + "' not found.");
@@ -79,6 +96,9 @@ public class CategoryServiceImpl implements CategoryService {
             categoryToUpdate.setName(categoryRequest.getName());
             categoryToUpdate.setImageUrl(categoryRequest.getImageUrl());
             Category updatedCategory = categoryRepository.save(categoryToUpdate);
+            cacheEvictor.evictCategories();
+            cacheEvictor.evictAllProducts();
+            searchIndex.renameCategory(id, updatedCategory.getName());
             return CategoryMapper.toCategoryResponse(updatedCategory);
         } else {
             throw new ResourceNotFoundException("Category with id '" + id + "' not found.");
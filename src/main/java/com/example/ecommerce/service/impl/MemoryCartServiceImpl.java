@@ -0,0 +1,290 @@
+package com.example.ecommerce.service.impl;
+
+import com.example.ecommerce.exception.excptions.CartEmptyException;
+import com.example.ecommerce.exception.excptions.InsufficientStockException;
+import com.example.ecommerce.exception.excptions.ResourceNotFoundException;
+import com.example.ecommerce.mapper.CartMapper;
+import com.example.ecommerce.model.dto.request.CartBatchRequest;
+import com.example.ecommerce.model.dto.request.CartItemRequest;
+import com.example.ecommerce.model.dto.response.CartItemResponse;
+import com.example.ecommerce.model.dto.response.CartResponse;
+import com.example.ecommerce.model.dto.response.ProductResponse;
+import com.example.ecommerce.model.dto.response.ProductSummaryResponse;
+import com.example.ecommerce.model.entity.Cart;
+import com.example.ecommerce.model.entity.CartItem;
+import com.example.ecommerce.model.entity.User;
+import com.example.ecommerce.repository.CartItemRepository;
+import com.example.ecommerce.repository.CartRepository;
+import com.example.ecommerce.repository.ProductRepository;
+import com.example.ecommerce.repository.UserRepository;
+import com.example.ecommerce.service.CartService;
+import com.example.ecommerce.service.ProductService;
+import com.example.ecommerce.service.UserDeletedEvent;
+import com.example.ecommerce.service.cart.CartOperations;
+import com.example.ecommerce.service.cart.MemoryCart;
+import com.example.ecommerce.service.cart.MemoryCartStore;
+import com.example.ecommerce.util.AssistantHelper;
+import com.example.ecommerce.util.MessageResponse;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Cart store for {@code app.cart.store=memory}: carts are read and changed in {@link MemoryCartStore}
+ * and written to the cart tables in the background. Products come from the product cache, so a cart
+ * change usually costs no database round trip at all. Methods therefore do not open a transaction of
+ * their own.
+ */
+@Service
+@ConditionalOnProperty(name = "app.cart.store", havingValue = "memory")
+@Transactional(propagation = Propagation.SUPPORTS)
+public class MemoryCartServiceImpl implements CartService {
+
+    private static final int MAX_CACHED_USERS = 100_000;
+
+    private final MemoryCartStore store;
+    private final ProductService productService;
+    private final UserRepository userRepository;
+    private final CartRepository cartRepository;
+    private final CartItemRepository cartItemRepository;
+    private final ProductRepository productRepository;
+    // emails never change, but a deleted user's email can be registered again, so deletes evict it
+    private final Cache<String, Long> userIds;
+
+    public MemoryCartServiceImpl(MemoryCartStore store,
+                                 ProductService productService,
+                                 UserRepository userRepository,
+                                 CartRepository cartRepository,
+                                 CartItemRepository cartItemRepository,
+                                 ProductRepository productRepository,
+                                 @Value("${app.cart.memory.idle-ttl:30m}") Duration idleTtl) {
+        this.store = store;
+        this.productService = productService;
+        this.userRepository = userRepository;
+        this.cartRepository = cartRepository;
+        this.cartItemRepository = cartItemRepository;
+        this.productRepository = productRepository;
+        this.userIds = Caffeine.newBuilder()
+                .maximumSize(MAX_CACHED_USERS)
+                .expireAfterAccess(idleTtl)
+                .build();
+    }
+
+    @Override
+    public Cart createNewCartById(Long userId) {
+        Long cartId = store.update(userId, MemoryCart::getCartId);
+        return cartRepository.findById(cartId)
+                .orElseThrow(() -> new ResourceNotFoundException("Cart", "id", cartId));
+    }
+
+    @Override
+    public Cart createNewCartByEmail(String email) {
+        return createNewCartById(userId(email));
+    }
+
+    @Override
+    public CartResponse addItemToCart(Long userId, CartItemRequest cartItemRequest) {
+
+        if (cartItemRequest.getQuantity() <= 0) {
+            throw new InsufficientStockException("the quantity must be greater than zero");
+        }
+
+        ProductResponse product = productService.getProductById(cartItemRequest.getProductId());
+        checkStockAvailability(product, cartItemRequest.getQuantity());
+
+        return toCartResponse(store.update(userId, cart -> {
+            int newQuantity = cart.quantity(product.getId()) + cartItemRequest.getQuantity();
+            checkStockAvailability(product, newQuantity);
+            cart.setQuantity(product.getId(), newQuantity);
+            return Snapshot.of(cart);
+        }));
+    }
+
+    @Override
+    public CartResponse getCartByUserId(Long userId) {
+        return toCartResponse(store.update(userId, Snapshot::of));
+    }
+
+    @Override
+    public CartResponse getCartByEmail(String email) {
+        return getCartByUserId(userId(email));
+    }
+
+    @Override
+    public CartResponse updateItem(String email, Long productId, CartItemRequest req) {
+
+        if (req.getQuantity() < 0) {
+            throw new InsufficientStockException("the quantity must be zero or greater");
+        }
+
+        Long userId = userId(email);
+        ProductResponse product = productService.getProductById(productId);
+
+        return toCartResponse(store.update(userId, cart -> {
+            if (!cart.contains(productId)) {
+                throw new ResourceNotFoundException("CartItem", "productId", productId);
+            }
+            if (req.getQuantity() == 0) {
+                cart.remove(productId);
+            } else {
+                checkStockAvailability(product, req.getQuantity());
+                cart.setQuantity(productId, req.getQuantity());
+            }
+            return Snapshot.of(cart);
+        }));
+    }
+
+    /**
+     * All operations are checked before any is applied. The products they name are read with one
+     * query, since a batch usually touches products that are not in the cache yet.
+     */
+    @Override
+    public CartResponse applyOperations(String email, CartBatchRequest request) {
+
+        Long userId = userId(email);
+        Set<Long> productIds = request.getOperations().stream()
+                .map(CartBatchRequest.Operation::getProductId)
+                .collect(Collectors.toSet());
+        Map<Long, ProductSummaryResponse> products = productRepository.findSummariesByIdIn(productIds).stream()
+                .collect(Collectors.toMap(ProductSummaryResponse::id, Function.identity()));
+
+        return toCartResponse(store.update(userId, cart -> {
+            Map<Long, Integer> current = cart.quantities();
+            Map<Long, Integer> quantities = CartOperations.apply(current, request.getOperations());
+            quantities.forEach((productId, quantity) -> {
+                if (quantity.equals(current.get(productId))) {
+                    return;
+                }
+                ProductSummaryResponse product = products.get(productId);
+                if (product == null) {
+                    throw new ResourceNotFoundException("Product", "id", productId);
+                }
+                if (product.stockQuantity() < quantity) {
+                    throw new InsufficientStockException(product.name(), quantity, product.stockQuantity());
+                }
+            });
+
+            current.keySet().stream()
+                    .filter(productId -> !quantities.containsKey(productId))
+                    .forEach(cart::remove);
+            quantities.forEach(cart::setQuantity);
+            return Snapshot.of(cart);
+        }));
+    }
+
+    /**
+     * Only lines that have been written have an id; the cart is found through the row.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public MessageResponse deleteCartItem(Long cartItemId) {
+
+        CartItem cartItem = cartItemRepository.findById(cartItemId)
+                .orElseThrow(() -> new ResourceNotFoundException("CartItem", "id", cartItemId));
+
+        Long userId = cartItem.getCart().getUser().getId();
+        Long productId = cartItem.getProduct().getId();
+        String productName = cartItem.getProduct().getName();
+        store.update(userId, cart -> {
+            cart.remove(productId);
+            return null;
+        });
+
+        return AssistantHelper.toMessageResponse("successful deleted item: " + productName);
+    }
+
+    @Override
+    public CartResponse removeItem(String email, Long productId) {
+
+        return toCartResponse(store.update(userId(email), cart -> {
+            if (!cart.contains(productId)) {
+                throw new ResourceNotFoundException("CartItem", "productId", productId);
+            }
+            cart.remove(productId);
+            return Snapshot.of(cart);
+        }));
+    }
+
+    @Override
+    public MessageResponse clearCart(String email) {
+
+        store.update(userId(email), cart -> {
+            if (cart.isEmpty()) {
+                throw new CartEmptyException("the cart is already empty");
+            }
+            cart.clear();
+            return null;
+        });
+
+        return AssistantHelper.toMessageResponse("successful cleared cart");
+    }
+
+    @Override
+    @Transactional
+    public void syncCart(String email) {
+        store.writeNow(userId(email));
+    }
+
+    @Override
+    public void checkedOut(String email, Map<Long, Integer> orderedQuantities) {
+        store.checkedOut(userId(email), orderedQuantities);
+    }
+
+    // runs after the delete commits; listeners of that phase may not join the class-level transaction
+    @TransactionalEventListener
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void onUserDeleted(UserDeletedEvent event) {
+        userIds.invalidate(event.email());
+        store.evict(event.userId());
+    }
+
+    private Long userId(String email) {
+        return userIds.get(email, key -> userRepository.findByEmail(key)
+                .map(User::getId)
+                .orElseThrow(() -> new ResourceNotFoundException("User", "email", key)));
+    }
+
+    /**
+     * Built outside the shard lock, since a product missing from the cache is loaded from the database.
+     * Products deleted since they were added are left out.
+     */
+    private CartResponse toCartResponse(Snapshot snapshot) {
+        Set<CartItemResponse> items = new LinkedHashSet<>();
+        for (MemoryCart.CartLine line : snapshot.lines()) {
+            ProductResponse product;
+            try {
+                product = productService.getProductById(line.productId());
+            } catch (ResourceNotFoundException e) {
+                continue;
+            }
+            items.add(CartMapper.toCartItemResponse(line.itemId(), product, line.quantity()));
+        }
+        return CartMapper.toCartResponse(snapshot.cartId(), snapshot.userId(), items);
+    }
+
+    private void checkStockAvailability(ProductResponse product, int requestedQuantity) {
+        if (product.getStockQuantity() < requestedQuantity) {
+            throw new InsufficientStockException(product.getName(), requestedQuantity, product.getStockQuantity());
+        }
+    }
+
+    private record Snapshot(Long cartId, Long userId, List<MemoryCart.CartLine> lines) {
+
+        static Snapshot of(MemoryCart cart) {
+            return new Snapshot(cart.getCartId(), cart.getUserId(), cart.lines());
+        }
+    }
+}
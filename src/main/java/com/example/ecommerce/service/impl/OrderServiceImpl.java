@@ -1,39 +1,51 @@
 package com.example.ecommerce.service.impl;
 
-import com.example.ecommerce.exception.excptions.InsufficientStockException;
 import com.example.ecommerce.exception.excptions.CartEmptyException;
 import com.example.ecommerce.exception.excptions.CustomException;
 import com.example.ecommerce.exception.excptions.ResourceNotFoundException;
 import com.example.ecommerce.mapper.OrderMapper;
 import com.example.ecommerce.model.dto.response.OrderResponse;
 import com.example.ecommerce.model.entity.*;
+import com.example.ecommerce.model.enums.DataFormat;
 import com.example.ecommerce.model.enums.OrderStatus;
 import com.example.ecommerce.repository.*;
 import com.example.ecommerce.service.CartService;
 import com.example.ecommerce.service.OrderService;
+import com.example.ecommerce.service.export.StreamingExporter;
+import com.example.ecommerce.service.inventory.StockLedger;
+import com.example.ecommerce.service.search.PopularityIndex;
+import com.example.ecommerce.util.LongIntHashMap;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class OrderServiceImpl implements OrderService {
 
+    private static final List<String> EXPORT_COLUMNS = List.of("orderId", "userId", "status", "totalPrice",
+            "orderDate", "itemId", "productName", "quantity", "price");
+
     private final OrderRepository orderRepository;
     private final CartRepository cartRepository;
-    private final ProductRepository productRepository;
     private final OrderItemRepository orderItemRepository;
     private final CartItemRepository cartItemRepository;
     private final UserRepository userRepository;
     private final CartService cartService;
-    private final ProductServiceImpl productService;
+    private final StockLedger stockLedger;
+    private final StreamingExporter exporter;
+    private final PopularityIndex popularityIndex;
 
     @Transactional
     @Override
@@ -42,7 +54,8 @@ public class OrderServiceImpl implements OrderService {
         User user = userRepository.findByEmail(email)
                 .orElseThrow(() ->  new ResourceNotFoundException("User", "email", email));
 
-        Cart cart = cartRepository.findByUser_Email(email)
+        cartService.syncCart(email);
+        Cart cart = cartRepository.findWithItemsByUserEmail(email)
                 .orElseThrow(() -> new ResourceNotFoundException("Cart", "user email", email));
 
         if (cart.getCartItems() == null || cart.getCartItems().isEmpty()) {
@@ -58,56 +71,61 @@ public class OrderServiceImpl implements OrderService {
 
         BigDecimal totalPrice = BigDecimal.ZERO;
 
-        try {
-            for (CartItem cartItem : cart.getCartItems()) {
-                if (cartItem == null) {
-                    continue;
-                }
-                Product product = cartItem.getProduct();
-                if (product == null) {
-                    throw new ResourceNotFoundException("Product", "cartItem", cartItem.getId());
-                }
-                Integer qtyObj = cartItem.getQuantity();
-                int quantity = (qtyObj == null ? 0 : qtyObj);
-                if (quantity <= 0) {
-                    throw new com.example.ecommerce.exception.excptions.BadRequestException("Invalid quantity for product: " + product.getId());
-                }
-
-                if (product.getPrice() == null) {
-                    throw new com.example.ecommerce.exception.excptions.BadRequestException("Product price is not set for product: " + product.getId());
-                }
-
-                productService.reduceStock(product.getId(), quantity);
-
-                OrderItem orderItem = new OrderItem();
-                orderItem.setOrder(order);
-                orderItem.setProduct(product);
-                orderItem.setQuantity(quantity);
-                orderItem.setPrice(product.getPrice());
-
-                order.getOrderItems().add(orderItem);
-                totalPrice = totalPrice.add(product.getPrice().multiply(BigDecimal.valueOf(quantity)));
+        for (CartItem cartItem : cart.getCartItems()) {
+            if (cartItem == null) {
+                continue;
+            }
+            Product product = cartItem.getProduct();
+            if (product == null) {
+                throw new ResourceNotFoundException("Product", "cartItem", cartItem.getId());
+            }
+            Integer qtyObj = cartItem.getQuantity();
+            int quantity = (qtyObj == null ? 0 : qtyObj);
+            if (quantity <= 0) {
+                throw new com.example.ecommerce.exception.excptions.BadRequestException("Invalid quantity for product: " + product.getId());
+            }
 
+            if (product.getPrice() == null) {
+                throw new com.example.ecommerce.exception.excptions.BadRequestException("Product price is not set for product: " + product.getId());
             }
 
-            order.setTotalPrice(totalPrice);
-            Order savedOrder = orderRepository.save(order);
+            OrderItem orderItem = new OrderItem();
+            orderItem.setOrder(order);
+            orderItem.setProduct(product);
+            orderItem.setQuantity(quantity);
+            orderItem.setPrice(product.getPrice());
 
-            cart.getCartItems().clear();
-            cartRepository.save(cart);
+            order.getOrderItems().add(orderItem);
+            totalPrice = totalPrice.add(product.getPrice().multiply(BigDecimal.valueOf(quantity)));
 
+        }
 
-            return OrderMapper.toOrderResponse(savedOrder);
+        order.setTotalPrice(totalPrice);
+        Order savedOrder = orderRepository.save(order);
+        for (OrderItem orderItem : savedOrder.getOrderItems()) {
+            popularityIndex.recordSale(orderItem.getProduct().getId(), orderItem.getQuantity());
+        }
 
-        } catch (Exception e) {
-            restoreStockOnFailure(order);
-            throw e;
+        Map<Long, Integer> orderedQuantities = new HashMap<>();
+        for (CartItem cartItem : cart.getCartItems()) {
+            orderedQuantities.put(cartItem.getProduct().getId(), cartItem.getQuantity());
         }
+        cart.getCartItems().clear();
+        cartRepository.save(cart);
+        cartService.checkedOut(email, orderedQuantities);
+
+
+        return OrderMapper.toOrderResponse(savedOrder);
     }
 
 
+    /**
+     * Checks every line and takes the ordered quantities from stock in one batch. Nothing needs to be
+     * put back on failure: the stock is taken in the order's transaction and rolls back with it.
+     */
     private void validateAndReserveStock(Cart cart) {
 
+        LongIntHashMap quantities = new LongIntHashMap(cart.getCartItems().size());
         for (CartItem cartItem : cart.getCartItems()) {
             if (cartItem == null) continue;
             Product product = cartItem.getProduct();
@@ -119,27 +137,10 @@ public class OrderServiceImpl implements OrderService {
             if (requestedQuantity <= 0) {
                 throw new com.example.ecommerce.exception.excptions.BadRequestException("Invalid quantity for product: " + product.getId());
             }
-
-            Product freshProduct = productRepository.findById(product.getId())
-                    .orElseThrow(() -> new ResourceNotFoundException("Product", "id", product.getId()));
-
-            if (freshProduct.getStockQuantity() < requestedQuantity) {
-                throw new InsufficientStockException(freshProduct.getName(), requestedQuantity, freshProduct.getStockQuantity());
-            }
+            quantities.addTo(product.getId(), requestedQuantity);
         }
 
-    }
-
-    private void restoreStockOnFailure(Order order) {
-        if (order.getOrderItems() != null) {
-            for (OrderItem orderItem : order.getOrderItems()) {
-                try {
-                    productService.restoreStock(orderItem.getProduct().getId(), orderItem.getQuantity());
-                } catch (Exception e) {
-                    throw e;
-                }
-            }
-        }
+        stockLedger.take(quantities);
     }
 
     @Transactional
@@ -158,8 +159,13 @@ public class OrderServiceImpl implements OrderService {
             throw new CustomException("Only pending orders can be cancelled.", HttpStatus.MULTI_STATUS, "Only pending orders can be cancelled.");
         }
 
+        LongIntHashMap quantities = new LongIntHashMap(order.getOrderItems().size());
+        for (OrderItem orderItem : order.getOrderItems()) {
+            quantities.addTo(orderItem.getProduct().getId(), orderItem.getQuantity());
+        }
+        stockLedger.restore(quantities);
         for (OrderItem orderItem : order.getOrderItems()) {
-            productService.restoreStock(orderItem.getProduct().getId(), orderItem.getQuantity());
+            popularityIndex.recordCancellation(orderItem.getProduct().getId(), orderItem.getQuantity(), order.getCreatedAt());
         }
 
         order.setStatus(OrderStatus.CANCELLED);
@@ -179,4 +185,17 @@ public class OrderServiceImpl implements OrderService {
     public List<OrderResponse> listAll() {
         return orderRepository.findAll().stream().map(OrderMapper::toOrderResponse).toList();
     }
+
+    /**
+     * CSV gets one line per order item; NDJSON gets one document per order with its items nested.
+     */
+    @Override
+    public StreamingResponseBody exportAll(DataFormat format) {
+        if (format == DataFormat.CSV) {
+            return exporter.csv(orderRepository::streamExportRows, EXPORT_COLUMNS, row -> Arrays.asList(
+                    row.orderId(), row.userId(), row.status(), row.totalPrice(), row.orderDate(),
+                    row.itemId(), row.productName(), row.quantity(), row.price()));
+        }
+        return exporter.ndjson(() -> OrderMapper.toOrderResponses(orderRepository.streamExportRows()));
+    }
 }
@@ -0,0 +1,492 @@
+package com.example.ecommerce.service.impl;
+
+import com.example.ecommerce.exception.excptions.BadRequestException;
+import com.example.ecommerce.exception.excptions.ResourceNotFoundException;
+import com.example.ecommerce.exception.excptions.ServiceUnavailableException;
+import com.example.ecommerce.mapper.ProductMapper;
+import com.example.ecommerce.model.dto.request.ProductImportRow;
+import com.example.ecommerce.model.dto.request.ProductRequest;
+import com.example.ecommerce.model.dto.response.ProductImportResponse;
+import com.example.ecommerce.model.entity.Category;
+import com.example.ecommerce.model.entity.Product;
+import com.example.ecommerce.model.enums.DataFormat;
+import com.example.ecommerce.model.enums.ImportStatus;
+import com.example.ecommerce.repository.CategoryRepository;
+import com.example.ecommerce.repository.ProductRepository;
+import com.example.ecommerce.service.ProductImportService;
+import com.example.ecommerce.service.inventory.LowStockRegistry;
+import com.example.ecommerce.service.search.ProductSearchIndex;
+import com.example.ecommerce.util.CsvReader;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import jakarta.annotation.PreDestroy;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.unit.DataSize;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Bulk product import. The upload is spooled to a temporary file and imported by a single background
+ * worker, so the request returns as soon as the body is received and only one import writes at a time.
+ * <p>
+ * Categories are loaded once per import and names are checked against the rest of the file in memory
+ * and against the table with one query per batch. Valid rows are inserted a batch at a time in their own
+ * transaction, which Hibernate sends as JDBC batches; a row that fails validation is reported and
+ * skipped without stopping the import.
+ */
+@Slf4j
+@Service
+public class ProductImportServiceImpl implements ProductImportService {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    // the CSV export prefixes these with a quote so spreadsheets do not evaluate them
+    private static final String FORMULA_PREFIXES = "=+-@";
+
+    private final ProductRepository productRepository;
+    private final CategoryRepository categoryRepository;
+    private final ProductSearchIndex searchIndex;
+    private final LowStockRegistry lowStockRegistry;
+    private final Validator validator;
+    private final ObjectReader rowReader;
+    private final TransactionTemplate transactionTemplate;
+    private final ThreadPoolExecutor executor;
+    private final int batchSize;
+    private final long maxBytes;
+    private final int maxErrors;
+    private final Duration retention;
+
+    private final Map<String, Job> jobs = new ConcurrentHashMap<>();
+
+    public ProductImportServiceImpl(ProductRepository productRepository,
+                                    CategoryRepository categoryRepository,
+                                    ProductSearchIndex searchIndex,
+                                    LowStockRegistry lowStockRegistry,
+                                    Validator validator,
+                                    ObjectMapper objectMapper,
+                                    PlatformTransactionManager transactionManager,
+                                    @Value("${app.import.batch-size:500}") int batchSize,
+                                    @Value("${app.import.max-size:200MB}") DataSize maxSize,
+                                    @Value("${app.import.max-reported-errors:100}") int maxErrors,
+                                    @Value("${app.import.queue-capacity:4}") int queueCapacity,
+                                    @Value("${app.import.retention:1h}") Duration retention) {
+        this.productRepository = productRepository;
+        this.categoryRepository = categoryRepository;
+        this.searchIndex = searchIndex;
+        this.lowStockRegistry = lowStockRegistry;
+        this.validator = validator;
+        this.rowReader = objectMapper.readerFor(ProductImportRow.class);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.executor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                new CustomizableThreadFactory("product-import-"),
+                new ThreadPoolExecutor.AbortPolicy());
+        this.batchSize = batchSize;
+        this.maxBytes = maxSize.toBytes();
+        this.maxErrors = maxErrors;
+        this.retention = retention;
+    }
+
+    @Override
+    public ProductImportResponse submit(InputStream body, DataFormat format) {
+        purgeFinished();
+        if (executor.getQueue().remainingCapacity() == 0) {
+            throw new ServiceUnavailableException("Too many imports waiting, please retry later");
+        }
+
+        Path file = spool(body, format);
+        Job job = new Job(UUID.randomUUID().toString(), format);
+        jobs.put(job.id, job);
+        try {
+            executor.execute(() -> run(job, file));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.id);
+            deleteQuietly(file);
+            throw new ServiceUnavailableException("Too many imports waiting, please retry later");
+        }
+        return job.toResponse();
+    }
+
+    @Override
+    public ProductImportResponse getStatus(String jobId) {
+        Job job = jobs.get(jobId);
+        if (job == null) {
+            throw new ResourceNotFoundException("Import", "id", jobId);
+        }
+        return job.toResponse();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private Path spool(InputStream body, DataFormat format) {
+        Path file = null;
+        try {
+            file = Files.createTempFile("product-import-", "." + format.getExtension());
+            long total = 0;
+            try (InputStream in = body; OutputStream out = Files.newOutputStream(file)) {
+                byte[] buffer = new byte[BUFFER_SIZE];
+                int read;
+                while ((read = in.read(buffer)) != -1) {
+                    total += read;
+                    if (total > maxBytes) {
+                        throw new BadRequestException("Import file is larger than " + DataSize.ofBytes(maxBytes).toMegabytes() + "MB");
+                    }
+                    out.write(buffer, 0, read);
+                }
+            }
+            if (total == 0) {
+                throw new BadRequestException("Import file is empty");
+            }
+            return file;
+        } catch (IOException e) {
+            deleteQuietly(file);
+            throw new BadRequestException("Cannot read the import file", e);
+        } catch (RuntimeException e) {
+            deleteQuietly(file);
+            throw e;
+        }
+    }
+
+    private void run(Job job, Path file) {
+        job.status = ImportStatus.RUNNING;
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            Run run = new Run(job);
+            if (job.format == DataFormat.CSV) {
+                readCsv(reader, run);
+            } else {
+                readNdjson(reader, run);
+            }
+            run.flush();
+            job.finish(ImportStatus.COMPLETED, null);
+            log.info("Product import {} finished: {} imported, {} rejected", job.id, job.imported, job.rejected);
+        } catch (Exception e) {
+            log.warn("Product import {} failed after {} rows", job.id, job.rowsRead, e);
+            job.finish(ImportStatus.FAILED, e.getMessage());
+        } finally {
+            deleteQuietly(file);
+        }
+    }
+
+    private void readCsv(BufferedReader reader, Run run) throws IOException {
+        CsvReader csv = new CsvReader(reader);
+        List<String> header = csv.next();
+        if (header == null) {
+            return;
+        }
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            String column = i == 0 ? stripBom(header.get(i)) : header.get(i);
+            columns.putIfAbsent(column.trim().toLowerCase(Locale.ROOT), i);
+        }
+        if (!columns.containsKey("name")) {
+            throw new IllegalArgumentException("CSV header has no 'name' column");
+        }
+
+        List<String> record;
+        while ((record = csv.next()) != null) {
+            if (record.size() == 1 && record.get(0).isBlank()) {
+                continue;
+            }
+            long line = csv.recordLine();
+            ProductImportRow row = new ProductImportRow();
+            try {
+                row.setName(text(record, columns, "name"));
+                row.setDescription(text(record, columns, "description"));
+                row.setPrice(number(record, columns, "price", BigDecimal::new));
+                row.setStockQuantity(number(record, columns, "stockQuantity", Integer::valueOf));
+                row.setCategoryId(number(record, columns, "categoryId", Long::valueOf));
+                String category = text(record, columns, "category");
+                row.setCategory(category != null ? category : text(record, columns, "categoryName"));
+                row.setImageUrl(text(record, columns, "imageUrl"));
+                row.setLowStockThreshold(number(record, columns, "lowStockThreshold", Integer::valueOf));
+            } catch (IllegalArgumentException e) {
+                run.reject(line, e.getMessage());
+                continue;
+            }
+            run.accept(line, row);
+        }
+    }
+
+    private void readNdjson(BufferedReader reader, Run run) throws IOException {
+        String text;
+        long line = 0;
+        while ((text = reader.readLine()) != null) {
+            line++;
+            if (line == 1) {
+                text = stripBom(text);
+            }
+            if (text.isBlank()) {
+                continue;
+            }
+            ProductImportRow row;
+            try {
+                row = rowReader.readValue(text);
+            } catch (JsonProcessingException e) {
+                run.reject(line, "Invalid JSON: " + e.getOriginalMessage());
+                continue;
+            }
+            run.accept(line, row);
+        }
+    }
+
+    private static String text(List<String> record, Map<String, Integer> columns, String column) {
+        Integer index = columns.get(column.toLowerCase(Locale.ROOT));
+        if (index == null || index >= record.size()) {
+            return null;
+        }
+        String value = record.get(index).trim();
+        if (value.isEmpty()) {
+            return null;
+        }
+        if (value.length() > 1 && value.charAt(0) == '\'' && FORMULA_PREFIXES.indexOf(value.charAt(1)) >= 0) {
+            return value.substring(1);
+        }
+        return value;
+    }
+
+    private static <T> T number(List<String> record, Map<String, Integer> columns, String column,
+                                Function<String, T> parser) {
+        String value = text(record, columns, column);
+        if (value == null) {
+            return null;
+        }
+        try {
+            return parser.apply(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid " + column + ": '" + value + "'");
+        }
+    }
+
+    private static String stripBom(String text) {
+        return text.startsWith("\uFEFF") ? text.substring(1) : text;
+    }
+
+    private void purgeFinished() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(retention);
+        jobs.values().removeIf(job -> job.finishedAt != null && job.finishedAt.isBefore(cutoff));
+    }
+
+    private static void deleteQuietly(Path file) {
+        if (file == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Cannot delete import file {}: {}", file, e.getMessage());
+        }
+    }
+
+    /**
+     * State of one import while its rows are read: the categories, the names seen so far and the rows
+     * waiting for the next batch insert.
+     */
+    private final class Run {
+
+        private final Job job;
+        private final Map<Long, Category> categoriesById = new HashMap<>();
+        private final Map<String, Category> categoriesByName = new HashMap<>();
+        private final Set<String> names = new HashSet<>();
+        private List<Candidate> pending = new ArrayList<>();
+
+        Run(Job job) {
+            this.job = job;
+            for (Category category : categoryRepository.findAll()) {
+                categoriesById.put(category.getId(), category);
+                categoriesByName.putIfAbsent(category.getName().trim().toLowerCase(Locale.ROOT), category);
+            }
+        }
+
+        void reject(long line, String message) {
+            job.rowsRead++;
+            job.reject(line, message, maxErrors);
+        }
+
+        void accept(long line, ProductImportRow row) {
+            job.rowsRead++;
+
+            Category category = null;
+            if (row.getCategoryId() != null) {
+                category = categoriesById.get(row.getCategoryId());
+                if (category == null) {
+                    job.reject(line, "Category not found with id: " + row.getCategoryId(), maxErrors);
+                    return;
+                }
+            } else if (row.getCategory() != null && !row.getCategory().isBlank()) {
+                category = categoriesByName.get(row.getCategory().trim().toLowerCase(Locale.ROOT));
+                if (category == null) {
+                    job.reject(line, "Category not found with name: " + row.getCategory(), maxErrors);
+                    return;
+                }
+            }
+
+            ProductRequest request = new ProductRequest();
+            request.setName(row.getName());
+            request.setDescription(row.getDescription());
+            request.setPrice(row.getPrice());
+            request.setStockQuantity(row.getStockQuantity());
+            request.setCategoryId(category == null ? null : category.getId());
+            request.setImageUrl(row.getImageUrl());
+            request.setLowStockThreshold(row.getLowStockThreshold());
+
+            Set<ConstraintViolation<ProductRequest>> violations = validator.validate(request);
+            if (!violations.isEmpty()) {
+                job.reject(line, violations.stream()
+                        .map(ConstraintViolation::getMessage)
+                        .sorted()
+                        .collect(Collectors.joining("; ")), maxErrors);
+                return;
+            }
+            if (!names.add(key(request.getName()))) {
+                job.reject(line, "Duplicate product name in file: " + request.getName().trim(), maxErrors);
+                return;
+            }
+
+            pending.add(new Candidate(line, request, category));
+            if (pending.size() >= batchSize) {
+                flush();
+            }
+        }
+
+        void flush() {
+            if (pending.isEmpty()) {
+                return;
+            }
+            List<Candidate> batch = pending;
+            pending = new ArrayList<>(batchSize);
+
+            Set<String> existing = productRepository.findExistingNames(
+                            batch.stream().map(candidate -> candidate.request().getName().trim()).toList())
+                    .stream()
+                    .map(ProductImportServiceImpl::key)
+                    .collect(Collectors.toSet());
+            List<Candidate> accepted = new ArrayList<>(batch.size());
+            for (Candidate candidate : batch) {
+                if (existing.contains(key(candidate.request().getName()))) {
+                    job.reject(candidate.line(), "Product already exists with name: " + candidate.request().getName().trim(), maxErrors);
+                } else {
+                    accepted.add(candidate);
+                }
+            }
+            if (accepted.isEmpty()) {
+                return;
+            }
+
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    List<Product> products = new ArrayList<>(accepted.size());
+                    for (Candidate candidate : accepted) {
+                        products.add(ProductMapper.toProduct(candidate.request(), candidate.category()));
+                    }
+                    productRepository.saveAll(products);
+                    productRepository.flush();
+                    for (Product product : products) {
+                        searchIndex.index(ProductMapper.toSearchDocument(product));
+                        lowStockRegistry.onStockChanged(product);
+                    }
+                });
+                job.imported += accepted.size();
+            } catch (RuntimeException e) {
+                log.warn("Product import {} could not write a batch of {} rows: {}", job.id, accepted.size(), e.getMessage());
+                for (Candidate candidate : accepted) {
+                    job.reject(candidate.line(), "Batch write failed: " + e.getMessage(), maxErrors);
+                }
+            }
+        }
+    }
+
+    private static String key(String name) {
+        return name.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private record Candidate(long line, ProductRequest request, Category category) {
+    }
+
+    /**
+     * Progress counters are written by the import worker only and read by status requests.
+     */
+    private static final class Job {
+
+        private final String id;
+        private final DataFormat format;
+        private final LocalDateTime submittedAt = LocalDateTime.now();
+        private final List<ProductImportResponse.RowError> errors = new ArrayList<>();
+
+        private volatile ImportStatus status = ImportStatus.QUEUED;
+        private volatile long rowsRead;
+        private volatile long imported;
+        private volatile long rejected;
+        private volatile String message;
+        private volatile LocalDateTime finishedAt;
+
+        Job(String id, DataFormat format) {
+            this.id = id;
+            this.format = format;
+        }
+
+        void reject(long line, String message, int maxErrors) {
+            rejected++;
+            synchronized (errors) {
+                if (errors.size() < maxErrors) {
+                    errors.add(new ProductImportResponse.RowError(line, message));
+                }
+            }
+        }
+
+        void finish(ImportStatus status, String message) {
+            this.message = message;
+            this.finishedAt = LocalDateTime.now();
+            this.status = status;
+        }
+
+        ProductImportResponse toResponse() {
+            ProductImportResponse response = new ProductImportResponse();
+            response.setJobId(id);
+            response.setStatus(status);
+            response.setRowsRead(rowsRead);
+            response.setImported(imported);
+            response.setRejected(rejected);
+            synchronized (errors) {
+                response.setErrors(List.copyOf(errors));
+            }
+            response.setMessage(message);
+            response.setSubmittedAt(submittedAt);
+            response.setFinishedAt(finishedAt);
+            return response;
+        }
+    }
+}
@@ -1,30 +1,68 @@
 package com.example.ecommerce.service.impl;
 
+import com.example.ecommerce.config.CacheNames;
+import com.example.ecommerce.exception.excptions.BadRequestException;
 import com.example.ecommerce.exception.excptions.DuplicateResourceException;
 import com.example.ecommerce.exception.excptions.InsufficientStockException;
 import com.example.ecommerce.exception.excptions.ResourceNotFoundException;
+import com.example.ecommerce.exception.excptions.ServiceUnavailableException;
 import com.example.ecommerce.mapper.ProductMapper;
+import com.example.ecommerce.model.dto.request.ProductBulkUpdateRequest;
 import com.example.ecommerce.model.dto.request.ProductRequest;
+import com.example.ecommerce.model.dto.request.ProductScrollFilter;
+import com.example.ecommerce.model.dto.response.CursorPage;
+import com.example.ecommerce.model.dto.response.FacetedSearchResponse;
+import com.example.ecommerce.model.dto.response.LowStockItemResponse;
+import com.example.ecommerce.model.dto.response.ProductBulkUpdateResponse;
 import com.example.ecommerce.model.dto.response.ProductResponse;
+import com.example.ecommerce.model.dto.response.ProductSummaryResponse;
+import com.example.ecommerce.model.dto.response.SuggestionResponse;
 import com.example.ecommerce.model.entity.Category;
 import com.example.ecommerce.model.entity.Product;
+import com.example.ecommerce.model.enums.BulkUpdateStatus;
+import com.example.ecommerce.model.enums.DataFormat;
+import com.example.ecommerce.model.enums.ProductSort;
+import com.example.ecommerce.model.projection.ProductStockState;
 import com.example.ecommerce.repository.CategoryRepository;
 import com.example.ecommerce.repository.ProductRepository;
 import com.example.ecommerce.service.ProductService;
+import com.example.ecommerce.service.cache.CatalogCacheEvictor;
+import com.example.ecommerce.service.export.StreamingExporter;
+import com.example.ecommerce.service.inventory.LowStockRegistry;
+import com.example.ecommerce.service.inventory.LowStockStream;
+import com.example.ecommerce.service.inventory.StockLedger;
+import com.example.ecommerce.service.search.PopularityIndex;
+import com.example.ecommerce.service.search.ProductSearchIndex;
 import com.example.ecommerce.util.AssistantHelper;
+import com.example.ecommerce.util.CursorCodec;
+import com.example.ecommerce.util.LongIntHashMap;
 import com.example.ecommerce.util.MessageResponse;
+import com.example.ecommerce.util.TextAnalyzer;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 
@@ -32,13 +70,27 @@ import java.util.stream.Collectors;
 @Service
 public class ProductServiceImpl implements ProductService {
 
+    private static final int MAX_SCROLL_SIZE = 100;
+    private static final List<String> EXPORT_COLUMNS = List.of(
+            "id", "name", "price", "stockQuantity", "imageUrl", "createdAt", "categoryId", "categoryName");
+
     private final ProductRepository productRepository;
     private final CategoryRepository categoryRepository;
+    private final CatalogCacheEvictor cacheEvictor;
+    private final ProductSearchIndex searchIndex;
+    private final PopularityIndex popularityIndex;
+    private final LowStockRegistry lowStockRegistry;
+    private final LowStockStream lowStockStream;
+    private final StockLedger stockLedger;
+    private final StreamingExporter exporter;
 
     @Override
-    public Page<ProductResponse> search(String name, String category, Pageable pageable) {
-        return productRepository.search(name, category, pageable)
-                .map(ProductMapper::toProductResponse);
+    @Transactional(readOnly = true)
+    public Page<ProductSummaryResponse> search(String name, String category, Pageable pageable) {
+        if (useSearchIndex(name, pageable)) {
+            return searchIndexed(name, category, null, null, null, pageable);
+        }
+        return productRepository.search(name, category, pageable);
     }
 
     @Override
@@ -55,17 +107,23 @@ public class ProductServiceImpl implements ProductService {
         Product product1 =ProductMapper.toProduct(productRequest,category);
 
         Product savedProduct = productRepository.save(product1);
+        searchIndex.index(ProductMapper.toSearchDocument(savedProduct));
+        lowStockRegistry.onStockChanged(savedProduct);
         return ProductMapper.toProductResponse(savedProduct);
     }
 
     @Override
+    @Cacheable(cacheNames = CacheNames.PRODUCTS, key = "#id", sync = true)
+    @Transactional(readOnly = true)
     public ProductResponse getProductById(Long id) {
-        Product product = productRepository.findById(id)
+        Product product = productRepository.findWithCategoryById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Product", "id", id));
         return ProductMapper.toProductResponse(product);
     }
 
     @Override
+    @Cacheable(cacheNames = CacheNames.PRODUCTS_BY_NAME, key = "#name.toLowerCase(T(java.util.Locale).ROOT)", sync = true)
+    @Transactional(readOnly = true)
     public ProductResponse getProductByName(String name) {
         Product product = productRepository.findByName(name)
                 .orElseThrow(() -> new ResourceNotFoundException("Product", "name", name));
@@ -73,21 +131,42 @@ public class ProductServiceImpl implements ProductService {
     }
 
     @Override
-    public List<ProductResponse> getProductByCategory(String name) {
-        List<Product> products = productRepository.findByCategoryName(name);
+    @Transactional(readOnly = true)
+    public List<ProductSummaryResponse> getProductByCategory(String name) {
+        return productRepository.findByCategoryName(name);
+    }
 
-        return products
-                .stream()
-                .map(ProductMapper::toProductResponse)
-                .collect(Collectors.toList());
+    @Override
+    @Transactional(readOnly = true)
+    public List<ProductSummaryResponse> getAllProducts() {
+        return productRepository.findAllSummaries();
     }
 
+    /**
+     * Best sellers by time-decayed sales, newest products while no sale has been recorded yet.
+     */
     @Override
-    public List<ProductResponse> getAllProducts() {
-        return productRepository.findAll()
-                .stream()
-                .map(ProductMapper::toProductResponse)
-                .collect(Collectors.toList());
+    @Transactional(readOnly = true)
+    @Cacheable(cacheNames = CacheNames.POPULAR_PRODUCTS, key = "#limit", sync = true)
+    public List<ProductSummaryResponse> getPopularProducts(int limit) {
+        int size = Math.max(1, Math.min(limit, popularityIndex.capacity()));
+        List<Long> ids = popularityIndex.top(size);
+        if (ids.isEmpty()) {
+            return productRepository.findAllSummaries(PageRequest.of(0, size, Sort.by(Sort.Direction.DESC, "id")))
+                    .getContent();
+        }
+        return loadPage(new PageImpl<>(ids, PageRequest.of(0, size), ids.size()), PageRequest.of(0, size))
+                .getContent();
+    }
+
+    @Override
+    public StreamingResponseBody exportProducts(DataFormat format) {
+        if (format == DataFormat.CSV) {
+            return exporter.csv(productRepository::streamAllSummaries, EXPORT_COLUMNS, product -> Arrays.asList(
+                    product.id(), product.name(), product.price(), product.stockQuantity(), product.imageUrl(),
+                    product.createdAt(), product.category().getId(), product.category().getName()));
+        }
+        return exporter.ndjson(productRepository::streamAllSummaries);
     }
 
     @Transactional
@@ -95,12 +174,17 @@ public class ProductServiceImpl implements ProductService {
     public MessageResponse update(Long id, ProductRequest request) {
         Product existingProduct = productRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Product", "id", id));
+        String previousName = existingProduct.getName();
 
             existingProduct.setName(AssistantHelper.trimString(request.getName()));
             existingProduct.setDescription(AssistantHelper.trimString(request.getDescription()));
             existingProduct.setPrice(request.getPrice());
             existingProduct.setStockQuantity(request.getStockQuantity());
             existingProduct.setImageUrl(AssistantHelper.trimString(request.getImageUrl()));
+            // clients that predate the field leave it out; that keeps the product's own threshold
+            if (request.getLowStockThreshold() != null) {
+                existingProduct.setLowStockThreshold(request.getLowStockThreshold());
+            }
 
             Category category = categoryRepository.findById(request.getCategoryId())
                     .orElseThrow(() -> new ResourceNotFoundException("Category", "id", request.getCategoryId()));
@@ -108,17 +192,87 @@ public class ProductServiceImpl implements ProductService {
 
 
         productRepository.save(existingProduct);
+        cacheEvictor.evictProduct(id, previousName, existingProduct.getName());
+        searchIndex.index(ProductMapper.toSearchDocument(existingProduct));
+        lowStockRegistry.onStockChanged(existingProduct);
         return AssistantHelper.toMessageResponse("Successful update");
     }
 
+    /**
+     * Price and stock changes for many products as batched conditional UPDATEs, without loading the
+     * entities. Rows that cannot be applied are reported with the product's current state instead of
+     * failing the request; the rows that were applied commit together.
+     */
+    @Override
+    @Transactional
+    public ProductBulkUpdateResponse bulkUpdate(ProductBulkUpdateRequest request) {
+        List<ProductBulkUpdateRequest.Item> items = request.getItems();
+        Set<Long> ids = new HashSet<>();
+        for (ProductBulkUpdateRequest.Item item : items) {
+            if (!ids.add(item.getId())) {
+                throw new BadRequestException("Product " + item.getId() + " appears more than once");
+            }
+            if (item.getStockQuantity() != null && item.getStockDelta() != null) {
+                throw new BadRequestException("Product " + item.getId() + ": set stockQuantity or stockDelta, not both");
+            }
+            if (item.getPrice() == null && item.getStockQuantity() == null && item.getStockDelta() == null) {
+                throw new BadRequestException("Product " + item.getId() + ": nothing to update");
+            }
+        }
+
+        int[] counts = productRepository.bulkUpdatePriceAndStock(items);
+        Map<Long, ProductStockState> states = productRepository.findStockStates(ids).stream()
+                .collect(Collectors.toMap(ProductStockState::id, Function.identity()));
+
+        List<ProductBulkUpdateResponse.Result> results = new ArrayList<>(items.size());
+        int updated = 0;
+        for (int i = 0; i < items.size(); i++) {
+            ProductBulkUpdateRequest.Item item = items.get(i);
+            ProductStockState state = states.get(item.getId());
+            BulkUpdateStatus status;
+            if (state == null) {
+                status = BulkUpdateStatus.NOT_FOUND;
+            } else if (counts[i] > 0) {
+                status = BulkUpdateStatus.UPDATED;
+                updated++;
+                cacheEvictor.evictProduct(state.id(), state.name());
+                searchIndex.updatePriceAndStock(state.id(), state.price(), state.stockQuantity());
+                lowStockRegistry.onStockChanged(state.id(), state.name(), state.stockQuantity(), state.lowStockThreshold());
+            } else if (item.getVersion() != null && !item.getVersion().equals(state.version())) {
+                status = BulkUpdateStatus.VERSION_CONFLICT;
+            } else if (resultingStock(item, state) < 0) {
+                status = BulkUpdateStatus.INSUFFICIENT_STOCK;
+            } else {
+                status = BulkUpdateStatus.CONCURRENT_UPDATE;
+            }
+            results.add(new ProductBulkUpdateResponse.Result(item.getId(), status,
+                    state == null ? null : state.version(),
+                    state == null ? null : state.price(),
+                    state == null ? null : state.stockQuantity()));
+        }
+        return new ProductBulkUpdateResponse(updated, items.size() - updated, results);
+    }
+
+    /**
+     * The stock the item asks for against the product's current stock, as the bulk UPDATE checks it.
+     */
+    private static long resultingStock(ProductBulkUpdateRequest.Item item, ProductStockState state) {
+        if (item.getStockQuantity() != null) {
+            return item.getStockQuantity();
+        }
+        return (long) state.stockQuantity() + (item.getStockDelta() == null ? 0 : item.getStockDelta());
+    }
 
     @Override
     @Transactional
     public MessageResponse DeleteProduct(Long id) {
-        if (!productRepository.existsById(id)) {
-            throw new ResourceNotFoundException("Product", "id", id);
-        }
-        productRepository.deleteById(id);
+        Product product = productRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Product", "id", id));
+        productRepository.delete(product);
+        cacheEvictor.evictProduct(id, product.getName());
+        searchIndex.remove(id);
+        popularityIndex.remove(id);
+        lowStockRegistry.remove(id);
         return AssistantHelper.toMessageResponse("Successful delete");
     }
 
@@ -146,23 +300,18 @@ public class ProductServiceImpl implements ProductService {
 
     @Transactional
     public void reduceStock(Long productId, int quantity) {
-        Product product = checkStockAvailabilityAndGetProduct(productId, quantity);
-
-        int newStock = product.getStockQuantity() - quantity;
-        product.setStockQuantity(newStock);
-
-        productRepository.save(product);
+        stockLedger.take(single(productId, quantity));
     }
 
     @Transactional
     public void restoreStock(Long productId, int quantity) {
-        Product product = productRepository.findById(productId)
-                .orElseThrow(() -> new ResourceNotFoundException("Product", "id", productId));
-
-        int newStock = product.getStockQuantity() + quantity;
-        product.setStockQuantity(newStock);
+        stockLedger.restore(single(productId, quantity));
+    }
 
-        productRepository.save(product);
+    private static LongIntHashMap single(Long productId, int quantity) {
+        LongIntHashMap quantities = new LongIntHashMap(1);
+        quantities.put(productId, quantity);
+        return quantities;
     }
 
     public boolean isStockAvailable(Long productId, int requestedQuantity) {
@@ -175,66 +324,179 @@ public class ProductServiceImpl implements ProductService {
     }
 
     @Override
-    public Page<ProductResponse> searchAdvanced(String name, String category,
-                                              BigDecimal minPrice, BigDecimal maxPrice,
-                                              Boolean inStock, Pageable pageable) {
+    @Transactional(readOnly = true)
+    public Page<ProductSummaryResponse> searchAdvanced(String name, String category,
+                                                       BigDecimal minPrice, BigDecimal maxPrice,
+                                                       Boolean inStock, Pageable pageable) {
 
-        return productRepository.search(name, category, minPrice, maxPrice, inStock, pageable)
-                .map(ProductMapper::toProductResponse);
+        if (useSearchIndex(name, pageable)) {
+            return searchIndexed(name, category, minPrice, maxPrice, inStock, pageable);
+        }
+        return productRepository.search(name, category, minPrice, maxPrice, inStock, pageable);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public FacetedSearchResponse searchFaceted(String name, String category,
+                                               BigDecimal minPrice, BigDecimal maxPrice,
+                                               Boolean inStock, Pageable pageable) {
+        if (!searchIndex.isReady()) {
+            throw new ServiceUnavailableException("Product search is still loading, please retry shortly");
+        }
+        ProductSearchIndex.FacetedIds hits = searchIndex.searchFaceted(name, category, minPrice, maxPrice, inStock, pageable);
+        return new FacetedSearchResponse(loadPage(hits.ids(), pageable), hits.facets());
     }
 
     @Override
-    public Page<ProductResponse> searchByName(String name, Pageable pageable) {
+    @Transactional(readOnly = true)
+    public Page<ProductSummaryResponse> searchByName(String name, Pageable pageable) {
 
         if (name == null || name.trim().isEmpty()) {
             return getAllProductsPaged(pageable);
         }
 
-        return productRepository.searchByName(name, pageable)
-                .map(ProductMapper::toProductResponse);
+        if (useSearchIndex(name, pageable)) {
+            Page<ProductSummaryResponse> exact = searchIndexed(name, null, null, null, null, pageable);
+            if (exact.getTotalElements() > 0) {
+                return exact;
+            }
+            // nothing matched as typed, look for names that are spelled close to it
+            return loadPage(searchIndex.searchFuzzy(name, pageable), pageable);
+        }
+        return productRepository.searchBySearchKey(TextAnalyzer.searchKey(name), pageable);
     }
 
     @Override
-    public Page<ProductResponse> searchByPriceRange(BigDecimal minPrice, BigDecimal maxPrice, Pageable pageable) {
+    @Transactional(readOnly = true)
+    public Page<ProductSummaryResponse> searchByPriceRange(BigDecimal minPrice, BigDecimal maxPrice, Pageable pageable) {
 
         if (minPrice != null && maxPrice != null && minPrice.compareTo(maxPrice) > 0) {
             throw new IllegalArgumentException("الحد الأدنى للسعر لا يمكن أن يكون أكبر من الحد الأقصى");
         }
 
-        return productRepository.findByPriceRange(minPrice, maxPrice, pageable)
-                .map(ProductMapper::toProductResponse);
+        return productRepository.findByPriceRange(minPrice, maxPrice, pageable);
     }
 
     @Override
-    public Page<ProductResponse> findAvailableProducts(Pageable pageable) {
+    @Transactional(readOnly = true)
+    public Page<ProductSummaryResponse> findAvailableProducts(Pageable pageable) {
 
-        return productRepository.findAvailableProducts(pageable)
-                .map(ProductMapper::toProductResponse);
+        return productRepository.findAvailableProducts(pageable);
     }
 
     @Override
-    public Page<ProductResponse> findOutOfStockProducts(Pageable pageable) {
+    @Transactional(readOnly = true)
+    public Page<ProductSummaryResponse> findOutOfStockProducts(Pageable pageable) {
 
-        return productRepository.findOutOfStockProducts(pageable)
-                .map(ProductMapper::toProductResponse);
+        return productRepository.findOutOfStockProducts(pageable);
     }
 
+    /**
+     * Served from the low-stock registry, where each product is compared with its own threshold. An
+     * explicit threshold replaces those, so it is answered from the database instead.
+     */
     @Override
-    public List<ProductResponse> findLowStockProducts(Integer threshold) {
+    @Transactional(readOnly = true)
+    public List<LowStockItemResponse> findLowStockProducts(Integer threshold) {
+        if (threshold != null && threshold > 0) {
+            return productRepository.findLowStockProductsAt(threshold);
+        }
+        if (!lowStockRegistry.isReady()) {
+            throw new ServiceUnavailableException("Low-stock products are still loading, please retry shortly");
+        }
+        return lowStockRegistry.list();
+    }
+
+    @Override
+    public SseEmitter subscribeLowStock() {
+        return lowStockStream.subscribe();
+    }
 
-        if (threshold == null || threshold <= 0) {
-            threshold = 10; // القيمة الافتراضية
+
+    @Override
+    public List<SuggestionResponse> suggest(String prefix, int limit) {
+        // served only from memory: called on every keystroke, so it must never fall through to the database
+        return searchIndex.suggest(prefix, limit);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<ProductSummaryResponse> scroll(ProductScrollFilter filter, ProductSort sort, String cursor,
+                                                     int size, boolean includeTotal) {
+        int limit = Math.max(1, Math.min(size, MAX_SCROLL_SIZE));
+        Object afterKey = null;
+        Long afterId = null;
+        if (cursor != null && !cursor.isBlank()) {
+            String[] parts = CursorCodec.decode(cursor, 3);
+            if (!sort.name().equals(parts[0])) {
+                throw new BadRequestException("Cursor was issued for a different sort order");
+            }
+            try {
+                afterKey = switch (sort) {
+                    case PRICE -> new BigDecimal(parts[1]);
+                    case NEWEST -> LocalDateTime.parse(parts[1]);
+                    default -> null;
+                };
+                afterId = Long.valueOf(parts[2]);
+            } catch (NumberFormatException | DateTimeParseException e) {
+                throw new BadRequestException("Invalid cursor", e);
+            }
         }
 
-        return productRepository.findLowStockProducts(threshold)
-                .stream()
-                .map(ProductMapper::toProductResponse)
-                .collect(Collectors.toList());
+        // one extra row tells whether there is a next page without counting
+        List<ProductSummaryResponse> rows = productRepository.scroll(filter, sort, afterKey, afterId, limit + 1);
+        boolean hasNext = rows.size() > limit;
+        List<ProductSummaryResponse> content = hasNext ? rows.subList(0, limit) : rows;
+
+        String nextCursor = null;
+        if (hasNext) {
+            ProductSummaryResponse last = content.get(content.size() - 1);
+            String key = switch (sort) {
+                case PRICE -> last.price().toPlainString();
+                case NEWEST -> last.createdAt().toString();
+                default -> "";
+            };
+            nextCursor = CursorCodec.encode(sort.name(), key, String.valueOf(last.id()));
+        }
+
+        Long total = includeTotal ? productRepository.countMatching(filter) : null;
+        return new CursorPage<>(content, nextCursor, hasNext, total);
+    }
+
+    /**
+     * The index only ranks by relevance; a caller asking for another order gets the database query.
+     */
+    private boolean useSearchIndex(String name, Pageable pageable) {
+        return name != null && !name.isBlank() && pageable.getSort().isUnsorted() && searchIndex.isReady();
     }
 
+    /**
+     * Ranks with the in-memory index, then loads only the products of the requested page.
+     */
+    private Page<ProductSummaryResponse> searchIndexed(String name, String category,
+                                                       BigDecimal minPrice, BigDecimal maxPrice,
+                                                       Boolean inStock, Pageable pageable) {
+        Page<Long> ids = searchIndex.search(name, category, minPrice, maxPrice, inStock, pageable);
+        return loadPage(ids, pageable);
+    }
+
+    private Page<ProductSummaryResponse> loadPage(Page<Long> ids, Pageable pageable) {
+        if (ids.isEmpty()) {
+            return new PageImpl<>(List.of(), pageable, ids.getTotalElements());
+        }
+
+        Map<Long, ProductSummaryResponse> products = productRepository.findSummariesByIdIn(ids.getContent())
+                .stream()
+                .collect(Collectors.toMap(ProductSummaryResponse::id, Function.identity()));
+        List<ProductSummaryResponse> content = ids.getContent()
+                .stream()
+                .map(products::get)
+                .filter(Objects::nonNull)
+                .toList();
+        return new PageImpl<>(content, pageable, ids.getTotalElements());
+    }
 
-    private Page<ProductResponse> getAllProductsPaged(Pageable pageable) {
-        return productRepository.findAll(pageable)
-                .map(ProductMapper::toProductResponse);
+    private Page<ProductSummaryResponse> getAllProductsPaged(Pageable pageable) {
+        return productRepository.findAllSummaries(pageable);
     }
 }
\ No newline at end of file
@@ -0,0 +1,98 @@
+package com.example.ecommerce.service.impl;
+
+import com.example.ecommerce.exception.excptions.UnauthorizedException;
+import com.example.ecommerce.model.entity.RefreshToken;
+import com.example.ecommerce.model.entity.User;
+import com.example.ecommerce.repository.RefreshTokenRepository;
+import com.example.ecommerce.service.RefreshTokenService;
+import com.example.ecommerce.util.TokenDigest;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.UUID;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class RefreshTokenServiceImpl implements RefreshTokenService {
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private final RefreshTokenRepository refreshTokenRepository;
+
+    @Value("${app.jwt.refresh-expiration}")
+    private long refreshExpirationMs;
+
+    @Value("${app.jwt.refresh-purge-batch-size:1000}")
+    private int purgeBatchSize;
+
+    @Transactional
+    @Override
+    public String issue(User user) {
+        return save(user, UUID.randomUUID().toString());
+    }
+
+    // a reused token must leave its family revoked, so only unexpected failures roll back
+    @Transactional(noRollbackFor = UnauthorizedException.class)
+    @Override
+    public RotatedToken rotate(String rawToken) {
+        LocalDateTime now = LocalDateTime.now();
+
+        RefreshToken token = refreshTokenRepository.findByTokenHash(TokenDigest.sha256(rawToken))
+                .orElseThrow(() -> new UnauthorizedException("Invalid refresh token"));
+
+        if (token.getUsedAt() != null || token.getRevokedAt() != null
+                || refreshTokenRepository.markUsed(token.getId(), now) == 0) {
+            refreshTokenRepository.revokeFamily(token.getFamilyId(), now);
+            log.warn("Refresh token reuse detected for user {}, family {} revoked",
+                    token.getUser().getId(), token.getFamilyId());
+            throw new UnauthorizedException("Refresh token already used. Please login again");
+        }
+
+        if (token.getExpiresAt().isBefore(now)) {
+            throw new UnauthorizedException("Refresh token expired. Please login again");
+        }
+
+        String newToken = save(token.getUser(), token.getFamilyId());
+        return new RotatedToken(token.getUser(), newToken);
+    }
+
+    @Override
+    public void revokeAll(Long userId) {
+        refreshTokenRepository.revokeAllByUserId(userId, LocalDateTime.now());
+    }
+
+    @Scheduled(cron = "${app.jwt.refresh-purge-cron:0 15 3 * * *}")
+    public void purgeExpired() {
+        LocalDateTime cutoff = LocalDateTime.now();
+        int total = 0;
+        int deleted;
+        do {
+            deleted = refreshTokenRepository.deleteExpiredBatch(cutoff, purgeBatchSize);
+            total += deleted;
+        } while (deleted == purgeBatchSize);
+        log.info("Purged {} expired refresh tokens", total);
+    }
+
+    private String save(User user, String familyId) {
+        byte[] bytes = new byte[32];
+        RANDOM.nextBytes(bytes);
+        String rawToken = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+
+        RefreshToken token = new RefreshToken();
+        token.setUser(user);
+        token.setTokenHash(TokenDigest.sha256(rawToken));
+        token.setFamilyId(familyId);
+        token.setExpiresAt(LocalDateTime.now().plus(Duration.ofMillis(refreshExpirationMs)));
+        refreshTokenRepository.save(token);
+        return rawToken;
+    }
+}
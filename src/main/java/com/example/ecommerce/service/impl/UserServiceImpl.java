@@ -1,24 +1,39 @@
 package com.example.ecommerce.service.impl;
 
+import com.example.ecommerce.config.TokenEpochRegistry;
 import com.example.ecommerce.mapper.UserMapper;
 import com.example.ecommerce.model.dto.request.UserRequestUpdate;
 import com.example.ecommerce.model.dto.response.UserResponse;
 import com.example.ecommerce.model.entity.User;
+import com.example.ecommerce.model.enums.DataFormat;
+import com.example.ecommerce.repository.RefreshTokenRepository;
 import com.example.ecommerce.repository.UserRepository;
+import com.example.ecommerce.service.UserDeletedEvent;
 import com.example.ecommerce.service.UserService;
+import com.example.ecommerce.service.export.StreamingExporter;
 import com.example.ecommerce.util.AssistantHelper;
 import com.example.ecommerce.util.MessageResponse;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.util.Arrays;
 import java.util.List;
 
 @Service
 @RequiredArgsConstructor
 public class UserServiceImpl implements UserService {
 
+    private static final List<String> EXPORT_COLUMNS = List.of("id", "fullName", "email", "role", "imageUrl", "createdAt");
+
     private final UserRepository userRepository;
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final TokenEpochRegistry tokenEpochRegistry;
+    private final StreamingExporter exporter;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Override
     public UserResponse getUserById(Long id) {
@@ -45,11 +60,25 @@ public class UserServiceImpl implements UserService {
     }
 
     @Override
+    public StreamingResponseBody exportUsers(DataFormat format) {
+        if (format == DataFormat.CSV) {
+            return exporter.csv(userRepository::streamAllUsers, EXPORT_COLUMNS, user -> Arrays.asList(
+                    user.getId(), user.getFullName(), user.getEmail(), user.getRole(), user.getImageUrl(),
+                    user.getCreatedAt()));
+        }
+        return exporter.ndjson(userRepository::streamAllUsers);
+    }
+
+    @Override
+    @Transactional
     public MessageResponse deleteUser(String email) {
         User user = userRepository.findByEmail(email)
                 .orElseThrow(() -> new UsernameNotFoundException("User with email '" + email + "' not found."));
 
+        refreshTokenRepository.deleteAllByUserId(user.getId());
         userRepository.delete(user);
+        tokenEpochRegistry.revokeAll(email);
+        eventPublisher.publishEvent(new UserDeletedEvent(user.getId(), email));
 
         return AssistantHelper.toMessageResponse("User with email '" + email + "' has been deleted.");
     }
@@ -0,0 +1,15 @@
+package com.example.ecommerce.service.inventory;
+
+import com.example.ecommerce.model.dto.response.LowStockItemResponse;
+
+/**
+ * Published when a product enters the low-stock set, changes while in it, or leaves it.
+ */
+public record LowStockEvent(Type type, LowStockItemResponse item) {
+
+    public enum Type {
+        ENTERED,
+        CHANGED,
+        CLEARED
+    }
+}
@@ -0,0 +1,180 @@
+package com.example.ecommerce.service.inventory;
+
+import com.example.ecommerce.model.dto.response.LowStockItemResponse;
+import com.example.ecommerce.model.entity.Product;
+import com.example.ecommerce.repository.ProductRepository;
+import com.example.ecommerce.util.AfterCommit;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * The products currently at or below their low-stock threshold but not yet out of stock (those are
+ * listed by {@code /out-of-stock}), kept in memory so the admin dashboard reads them without querying
+ * the products table. Every stock write reports the new level here after it commits; entering, changing
+ * within and leaving the set (including by selling out) each publish a {@link LowStockEvent}.
+ * <p>
+ * The set is loaded at startup and reconciled on a schedule to pick up writes made by other instances.
+ */
+@Slf4j
+@Component
+public class LowStockRegistry {
+
+    private static final Comparator<LowStockItemResponse> MOST_URGENT =
+            Comparator.comparing(LowStockItemResponse::stockQuantity)
+                    .thenComparing(LowStockItemResponse::productId);
+
+    private final ProductRepository productRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int defaultThreshold;
+
+    private final Map<Long, LowStockItemResponse> items = new HashMap<>();
+    // products written while a reconcile is loading; their in-memory state is newer than the query
+    private Set<Long> touched;
+    private volatile boolean ready;
+
+    public LowStockRegistry(ProductRepository productRepository,
+                            ApplicationEventPublisher eventPublisher,
+                            @Value("${app.inventory.low-stock-threshold:10}") int defaultThreshold) {
+        this.productRepository = productRepository;
+        this.eventPublisher = eventPublisher;
+        this.defaultThreshold = defaultThreshold;
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Records the product's stock level and threshold once the current transaction commits.
+     */
+    public void onStockChanged(Product product) {
+        onStockChanged(product.getId(), product.getName(), product.getStockQuantity(), product.getLowStockThreshold());
+    }
+
+    public void onStockChanged(Long productId, String name, int stockQuantity, Integer lowStockThreshold) {
+        int threshold = lowStockThreshold == null ? defaultThreshold : lowStockThreshold;
+        AfterCommit.run(() -> {
+            LowStockItemResponse item = stockQuantity > 0 && stockQuantity <= threshold
+                    ? new LowStockItemResponse(productId, name, stockQuantity, threshold)
+                    : null;
+            publish(put(productId, item));
+        });
+    }
+
+    public void remove(Long productId) {
+        AfterCommit.run(() -> publish(put(productId, null)));
+    }
+
+    /**
+     * Low-stock products, lowest stock first.
+     */
+    public List<LowStockItemResponse> list() {
+        List<LowStockItemResponse> snapshot;
+        synchronized (this) {
+            snapshot = new ArrayList<>(items.values());
+        }
+        snapshot.sort(MOST_URGENT);
+        return snapshot;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        reconcile();
+    }
+
+    @Scheduled(initialDelayString = "${app.inventory.low-stock.reconcile-ms:600000}",
+            fixedDelayString = "${app.inventory.low-stock.reconcile-ms:600000}")
+    public void reconcile() {
+        synchronized (this) {
+            if (touched != null) {
+                return;
+            }
+            touched = new HashSet<>();
+        }
+
+        Map<Long, LowStockItemResponse> loaded = new HashMap<>();
+        try {
+            for (LowStockItemResponse item : productRepository.findLowStockProducts(defaultThreshold)) {
+                loaded.put(item.productId(), item);
+            }
+        } catch (Exception e) {
+            log.warn("Cannot load low-stock products: {}", e.getMessage());
+            synchronized (this) {
+                touched = null;
+            }
+            return;
+        }
+
+        List<LowStockEvent> changes = new ArrayList<>();
+        boolean announce;
+        synchronized (this) {
+            for (Long productId : touched) {
+                LowStockItemResponse current = items.get(productId);
+                if (current == null) {
+                    loaded.remove(productId);
+                } else {
+                    loaded.put(productId, current);
+                }
+            }
+            touched = null;
+
+            Set<Long> productIds = new HashSet<>(items.keySet());
+            productIds.addAll(loaded.keySet());
+            for (Long productId : productIds) {
+                LowStockEvent change = change(items.get(productId), loaded.get(productId));
+                if (change != null) {
+                    changes.add(change);
+                }
+            }
+            items.clear();
+            items.putAll(loaded);
+            // the first load only fills the set, it does not report every low product as new
+            announce = ready;
+            ready = true;
+        }
+        if (announce) {
+            changes.forEach(this::publish);
+        }
+    }
+
+    private synchronized LowStockEvent put(Long productId, LowStockItemResponse item) {
+        if (touched != null) {
+            touched.add(productId);
+        }
+        LowStockItemResponse previous = item == null ? items.remove(productId) : items.put(productId, item);
+        return change(previous, item);
+    }
+
+    private static LowStockEvent change(LowStockItemResponse previous, LowStockItemResponse current) {
+        if (Objects.equals(previous, current)) {
+            return null;
+        }
+        if (previous == null) {
+            return new LowStockEvent(LowStockEvent.Type.ENTERED, current);
+        }
+        if (current == null) {
+            return new LowStockEvent(LowStockEvent.Type.CLEARED, previous);
+        }
+        return new LowStockEvent(LowStockEvent.Type.CHANGED, current);
+    }
+
+    private void publish(LowStockEvent event) {
+        if (event != null && ready) {
+            eventPublisher.publishEvent(event);
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.ecommerce.service.inventory;
+
+import com.example.ecommerce.exception.excptions.ServiceUnavailableException;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pushes {@link LowStockEvent}s to the admin dashboards subscribed over server-sent events. Events are
+ * written by a single background thread, so a slow dashboard never holds up the order that changed the
+ * stock; if that thread falls too far behind, the oldest pending events are dropped.
+ */
+@Slf4j
+@Component
+public class LowStockStream {
+
+    private final List<SseEmitter> emitters = new CopyOnWriteArrayList<>();
+    private final ThreadPoolExecutor sender;
+    private final long timeoutMs;
+    private final int maxSubscribers;
+
+    public LowStockStream(@Value("${app.inventory.low-stock.stream-timeout:30m}") Duration timeout,
+                          @Value("${app.inventory.low-stock.max-subscribers:20}") int maxSubscribers,
+                          @Value("${app.inventory.low-stock.queue-capacity:1000}") int queueCapacity) {
+        this.timeoutMs = timeout.toMillis();
+        this.maxSubscribers = maxSubscribers;
+        this.sender = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                new CustomizableThreadFactory("low-stock-sse-"),
+                new ThreadPoolExecutor.DiscardOldestPolicy());
+    }
+
+    public SseEmitter subscribe() {
+        if (emitters.size() >= maxSubscribers) {
+            throw new ServiceUnavailableException("Too many low-stock subscribers, please retry shortly");
+        }
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        emitter.onCompletion(() -> emitters.remove(emitter));
+        emitter.onTimeout(emitter::complete);
+        emitter.onError(error -> emitters.remove(emitter));
+        emitters.add(emitter);
+        return emitter;
+    }
+
+    @EventListener
+    public void onLowStock(LowStockEvent event) {
+        if (emitters.isEmpty()) {
+            return;
+        }
+        try {
+            sender.execute(() -> send(event));
+        } catch (RejectedExecutionException e) {
+            log.debug("Low-stock event dropped, sender is shut down");
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        sender.shutdownNow();
+        emitters.forEach(SseEmitter::complete);
+    }
+
+    private void send(LowStockEvent event) {
+        SseEmitter.SseEventBuilder message = SseEmitter.event()
+                .name(event.type().name().toLowerCase(Locale.ROOT))
+                .data(event.item());
+        for (SseEmitter emitter : emitters) {
+            try {
+                emitter.send(message);
+            } catch (IOException | IllegalStateException e) {
+                // the dashboard went away
+                emitters.remove(emitter);
+            }
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.example.ecommerce.service.inventory;
+
+import com.example.ecommerce.exception.excptions.InsufficientStockException;
+import com.example.ecommerce.exception.excptions.ResourceNotFoundException;
+import com.example.ecommerce.model.projection.ProductStockState;
+import com.example.ecommerce.repository.ProductRepository;
+import com.example.ecommerce.service.cache.CatalogCacheEvictor;
+import com.example.ecommerce.service.search.ProductSearchIndex;
+import com.example.ecommerce.util.LongIntHashMap;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Stock changes made in the database rather than on loaded entities. Each product is one conditional
+ * UPDATE, and all of them go out as one JDBC batch, so concurrent checkouts cannot oversell and do not
+ * fail on version conflicts. Rows are updated in id order so two checkouts locking the same products
+ * always take the locks in the same order.
+ * <p>
+ * The updates bypass the persistence context: products already loaded in the transaction keep their
+ * old stock and version, and saving one of them afterwards fails the version check.
+ */
+@Component
+@RequiredArgsConstructor
+public class StockLedger {
+
+    private final ProductRepository productRepository;
+    private final CatalogCacheEvictor cacheEvictor;
+    private final ProductSearchIndex searchIndex;
+    private final LowStockRegistry lowStockRegistry;
+
+    /**
+     * Takes the quantities (product id to units) from stock. If any product is missing or short, throws
+     * and nothing is taken, since the surrounding transaction rolls back the rest of the batch.
+     */
+    @Transactional
+    public void take(LongIntHashMap quantities) {
+        long[] productIds = sortedKeys(quantities);
+        int[] amounts = amounts(productIds, quantities);
+        int[] counts = productRepository.decrementStock(productIds, amounts);
+
+        Map<Long, ProductStockState> states = loadStates(productIds);
+        for (int i = 0; i < productIds.length; i++) {
+            if (counts[i] == 0) {
+                ProductStockState state = states.get(productIds[i]);
+                if (state == null) {
+                    throw new ResourceNotFoundException("Product", "id", productIds[i]);
+                }
+                throw new InsufficientStockException(state.name(), amounts[i], state.stockQuantity());
+            }
+        }
+        publish(states);
+    }
+
+    /**
+     * Puts the quantities (product id to units) back on stock.
+     */
+    @Transactional
+    public void restore(LongIntHashMap quantities) {
+        long[] productIds = sortedKeys(quantities);
+        int[] counts = productRepository.incrementStock(productIds, amounts(productIds, quantities));
+        for (int i = 0; i < productIds.length; i++) {
+            if (counts[i] == 0) {
+                throw new ResourceNotFoundException("Product", "id", productIds[i]);
+            }
+        }
+        publish(loadStates(productIds));
+    }
+
+    private Map<Long, ProductStockState> loadStates(long[] productIds) {
+        List<Long> ids = Arrays.stream(productIds).boxed().toList();
+        return productRepository.findStockStates(ids).stream()
+                .collect(Collectors.toMap(ProductStockState::id, Function.identity()));
+    }
+
+    private void publish(Map<Long, ProductStockState> states) {
+        for (ProductStockState state : states.values()) {
+            cacheEvictor.evictProduct(state.id(), state.name());
+            searchIndex.updateStock(state.id(), state.stockQuantity());
+            lowStockRegistry.onStockChanged(state.id(), state.name(), state.stockQuantity(), state.lowStockThreshold());
+        }
+    }
+
+    private static long[] sortedKeys(LongIntHashMap quantities) {
+        long[] productIds = quantities.keys();
+        Arrays.sort(productIds);
+        return productIds;
+    }
+
+    private static int[] amounts(long[] productIds, LongIntHashMap quantities) {
+        int[] amounts = new int[productIds.length];
+        for (int i = 0; i < productIds.length; i++) {
+            amounts[i] = quantities.get(productIds[i], 0);
+        }
+        return amounts;
+    }
+}
@@ -0,0 +1,271 @@
+package com.example.ecommerce.service.search;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Column-per-attribute copy of the catalog for facet counting: one primitive array per field, indexed
+ * by a dense row number, with rows in ascending product id. A facet query is a single scan over those
+ * arrays that counts every facet and collects the page at the same time.
+ * <p>
+ * Facets are disjunctive: each facet is counted with every filter applied except its own, so picking a
+ * category still shows how many products the other categories would have.
+ * <p>
+ * The snapshot is immutable apart from the stock column, which is patched in place on stock updates.
+ */
+final class FacetSnapshot {
+
+    private static final int NO_CATEGORY = -1;
+    private static final int UNKNOWN_CATEGORY = -2;
+
+    final long version;
+
+    private final long[] ids;
+    private final int[] categories;
+    private final long[] prices;
+    private final int[] stock;
+
+    private final long[] categoryIds;
+    private final String[] categoryNames;
+    private final Map<String, Integer> categoryOrdinals;
+
+    private FacetSnapshot(long version, long[] ids, int[] categories, long[] prices, int[] stock,
+                          long[] categoryIds, String[] categoryNames) {
+        this.version = version;
+        this.ids = ids;
+        this.categories = categories;
+        this.prices = prices;
+        this.stock = stock;
+        this.categoryIds = categoryIds;
+        this.categoryNames = categoryNames;
+        this.categoryOrdinals = new HashMap<>();
+        for (int i = 0; i < categoryNames.length; i++) {
+            if (categoryNames[i] != null) {
+                categoryOrdinals.putIfAbsent(categoryNames[i].toLowerCase(Locale.ROOT), i);
+            }
+        }
+    }
+
+    int size() {
+        return ids.length;
+    }
+
+    /**
+     * Row of the product, or -1 when it is not in the snapshot.
+     */
+    int rowOf(long productId) {
+        int row = Arrays.binarySearch(ids, productId);
+        return row >= 0 ? row : -1;
+    }
+
+    void updateStock(long productId, int stockQuantity) {
+        int row = rowOf(productId);
+        if (row >= 0) {
+            stock[row] = stockQuantity;
+        }
+    }
+
+    /**
+     * Counts the facets and collects the best {@code limit} matching rows.
+     *
+     * @param rows   candidate rows from a text match, or null to scan the whole catalog
+     * @param scores relevance of each candidate row; ignored when {@code rows} is null
+     */
+    Result count(int[] rows, double[] scores, int rowCount, Query query, long[] priceEdges, int limit) {
+        int category = categoryFilter(query.category());
+        long min = query.minPrice() == null ? Long.MIN_VALUE : toCents(query.minPrice());
+        long max = query.maxPrice() == null ? Long.MAX_VALUE : toCents(query.maxPrice());
+        boolean onlyInStock = query.onlyInStock();
+
+        long[] categoryCounts = new long[categoryIds.length];
+        long[] priceCounts = new long[priceEdges.length];
+        long inStock = 0;
+        long outOfStock = 0;
+        long total = 0;
+
+        boolean scan = rows == null;
+        int end = scan ? ids.length : rowCount;
+        // the whole-catalog scan runs in id order, so the first rows that match are the page
+        List<Integer> firstRows = scan ? new ArrayList<>(Math.min(limit, 1024)) : null;
+        PriorityQueue<Ranked> top = scan ? null : new PriorityQueue<>();
+
+        for (int i = 0; i < end; i++) {
+            int row = scan ? i : rows[i];
+            int rowStock = stock[row];
+            long price = prices[row];
+
+            boolean categoryMatch = category == NO_CATEGORY || categories[row] == category;
+            boolean priceMatch = price >= min && price <= max;
+            boolean stockMatch = !onlyInStock || rowStock > 0;
+
+            if (priceMatch && stockMatch) {
+                categoryCounts[categories[row]]++;
+            }
+            if (categoryMatch && stockMatch) {
+                priceCounts[bucket(priceEdges, price)]++;
+            }
+            if (categoryMatch && priceMatch) {
+                if (rowStock > 0) {
+                    inStock++;
+                } else {
+                    outOfStock++;
+                }
+            }
+            if (categoryMatch && priceMatch && stockMatch) {
+                total++;
+                if (scan) {
+                    if (firstRows.size() < limit) {
+                        firstRows.add(row);
+                    }
+                } else if (limit > 0) {
+                    top.offer(new Ranked(row, scores[i]));
+                    if (top.size() > limit) {
+                        top.poll();
+                    }
+                }
+            }
+        }
+
+        List<Long> productIds = new ArrayList<>();
+        if (scan) {
+            firstRows.forEach(row -> productIds.add(ids[row]));
+        } else {
+            List<Ranked> ranked = new ArrayList<>(top);
+            ranked.sort(null);
+            for (int i = ranked.size() - 1; i >= 0; i--) {
+                productIds.add(ids[ranked.get(i).row()]);
+            }
+        }
+
+        List<CategoryCount> categoryFacet = new ArrayList<>();
+        for (int i = 0; i < categoryCounts.length; i++) {
+            if (categoryCounts[i] > 0) {
+                categoryFacet.add(new CategoryCount(categoryIds[i], categoryNames[i], categoryCounts[i]));
+            }
+        }
+        categoryFacet.sort((a, b) -> a.count() != b.count()
+                ? Long.compare(b.count(), a.count())
+                : Long.compare(a.categoryId(), b.categoryId()));
+
+        return new Result(productIds, total, categoryFacet, priceCounts, inStock, outOfStock);
+    }
+
+    private int categoryFilter(String category) {
+        if (category == null || category.isBlank()) {
+            return NO_CATEGORY;
+        }
+        Integer ordinal = categoryOrdinals.get(category.trim().toLowerCase(Locale.ROOT));
+        return ordinal == null ? UNKNOWN_CATEGORY : ordinal;
+    }
+
+    /**
+     * Bucket {@code i} holds prices in {@code [edges[i], edges[i + 1])}; the last one is open-ended and
+     * anything below the first edge falls into the first bucket.
+     */
+    private static int bucket(long[] edges, long price) {
+        int index = Arrays.binarySearch(edges, price);
+        int bucket = index >= 0 ? index : -index - 2;
+        return Math.max(0, bucket);
+    }
+
+    static long toCents(BigDecimal price) {
+        return price.movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValue();
+    }
+
+    record Query(String category, BigDecimal minPrice, BigDecimal maxPrice, boolean onlyInStock) {
+    }
+
+    record CategoryCount(long categoryId, String name, long count) {
+    }
+
+    record Result(List<Long> productIds, long total, List<CategoryCount> categories, long[] priceCounts,
+                  long inStock, long outOfStock) {
+    }
+
+    /**
+     * Lowest score first so the queue can drop its head; ties keep the lower row (lower id).
+     */
+    private record Ranked(int row, double score) implements Comparable<Ranked> {
+
+        @Override
+        public int compareTo(Ranked other) {
+            int byScore = Double.compare(score, other.score);
+            return byScore != 0 ? byScore : Integer.compare(other.row, row);
+        }
+    }
+
+    /**
+     * Collects rows in any order; {@link #build} sorts them by product id.
+     */
+    static final class Builder {
+
+        private final Map<Long, Integer> categoryOrdinals = new HashMap<>();
+        private final List<Long> categoryIds = new ArrayList<>();
+        private final List<String> categoryNames = new ArrayList<>();
+
+        private long[] ids = new long[1024];
+        private int[] categories = new int[1024];
+        private long[] prices = new long[1024];
+        private int[] stock = new int[1024];
+        private int size;
+
+        void category(long categoryId, String name) {
+            Integer ordinal = categoryOrdinals.get(categoryId);
+            if (ordinal == null) {
+                categoryOrdinals.put(categoryId, categoryIds.size());
+                categoryIds.add(categoryId);
+                categoryNames.add(name);
+            } else if (name != null) {
+                categoryNames.set(ordinal, name);
+            }
+        }
+
+        void add(long productId, long categoryId, BigDecimal price, int stockQuantity) {
+            if (!categoryOrdinals.containsKey(categoryId)) {
+                category(categoryId, null);
+            }
+            if (size == ids.length) {
+                int capacity = size * 2;
+                ids = Arrays.copyOf(ids, capacity);
+                categories = Arrays.copyOf(categories, capacity);
+                prices = Arrays.copyOf(prices, capacity);
+                stock = Arrays.copyOf(stock, capacity);
+            }
+            ids[size] = productId;
+            categories[size] = categoryOrdinals.get(categoryId);
+            prices[size] = price == null ? 0 : toCents(price);
+            stock[size] = stockQuantity;
+            size++;
+        }
+
+        FacetSnapshot build(long version) {
+            Integer[] order = new Integer[size];
+            for (int i = 0; i < size; i++) {
+                order[i] = i;
+            }
+            Arrays.sort(order, (a, b) -> Long.compare(ids[a], ids[b]));
+
+            long[] sortedIds = new long[size];
+            int[] sortedCategories = new int[size];
+            long[] sortedPrices = new long[size];
+            int[] sortedStock = new int[size];
+            for (int i = 0; i < size; i++) {
+                int from = order[i];
+                sortedIds[i] = ids[from];
+                sortedCategories[i] = categories[from];
+                sortedPrices[i] = prices[from];
+                sortedStock[i] = stock[from];
+            }
+            return new FacetSnapshot(version, sortedIds, sortedCategories, sortedPrices, sortedStock,
+                    categoryIds.stream().mapToLong(Long::longValue).toArray(),
+                    categoryNames.toArray(String[]::new));
+        }
+    }
+}
@@ -0,0 +1,258 @@
+package com.example.ecommerce.service.search;
+
+import com.example.ecommerce.model.entity.ProductPopularity;
+import com.example.ecommerce.repository.ProductPopularityRepository;
+import com.example.ecommerce.util.AfterCommit;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Sales-based product ranking, kept in memory and served without a query. Every sold unit adds to the
+ * product's score, and scores decay exponentially with {@code app.popularity.half-life}, so recent sales
+ * outweigh old ones.
+ * <p>
+ * Decay uses forward weights: a sale at time {@code t} adds {@code 2^((t - landmark) / halfLife)}, so
+ * stored weights never change and their order is the order of the decayed scores at any moment. The
+ * best {@code app.popularity.top-k} products are kept in a sorted set updated on each sale.
+ * <p>
+ * Sales recorded here are added to the {@code product_popularity} table on a schedule; the table is
+ * then reloaded, which also picks up sales made on other instances.
+ */
+@Slf4j
+@Component
+public class PopularityIndex {
+
+    private static final Comparator<Ranked> BY_WEIGHT = Comparator.comparingDouble(Ranked::weight).reversed()
+            .thenComparingLong(Ranked::productId);
+
+    private final ProductPopularityRepository repository;
+    private final ProductSearchIndex searchIndex;
+    private final double halfLifeMillis;
+    private final double minScore;
+    private final int k;
+
+    private final long landmark = System.currentTimeMillis();
+    // weights loaded from the table at the last flush
+    private volatile Map<Long, Double> stored = Map.of();
+    // sales recorded on this instance since the last flush
+    private final Map<Long, Pending> pending = new ConcurrentHashMap<>();
+
+    private final TreeSet<Ranked> top = new TreeSet<>(BY_WEIGHT);
+    private final Map<Long, Ranked> ranked = new HashMap<>();
+
+    public PopularityIndex(ProductPopularityRepository repository,
+                           ProductSearchIndex searchIndex,
+                           @Value("${app.popularity.half-life:7d}") Duration halfLife,
+                           @Value("${app.popularity.min-score:0.01}") double minScore,
+                           @Value("${app.popularity.top-k:100}") int k) {
+        this.repository = repository;
+        this.searchIndex = searchIndex;
+        this.halfLifeMillis = halfLife.toMillis();
+        this.minScore = minScore;
+        this.k = k;
+    }
+
+    public int capacity() {
+        return k;
+    }
+
+    /**
+     * Adds the sold quantity once the order transaction commits.
+     */
+    public void recordSale(Long productId, int quantity) {
+        AfterCommit.run(() -> add(productId, quantity, System.currentTimeMillis()));
+    }
+
+    /**
+     * Takes back the units of a cancelled order, weighted as of the time they were ordered.
+     */
+    public void recordCancellation(Long productId, int quantity, LocalDateTime orderedAt) {
+        long at = orderedAt == null ? System.currentTimeMillis() : toMillis(orderedAt);
+        AfterCommit.run(() -> add(productId, -quantity, at));
+    }
+
+    public void remove(Long productId) {
+        AfterCommit.run(() -> {
+            pending.remove(productId);
+            Map<Long, Double> current = new HashMap<>(stored);
+            current.remove(productId);
+            stored = current;
+            synchronized (this) {
+                if (ranked.containsKey(productId)) {
+                    rebuildTop();
+                }
+            }
+        });
+    }
+
+    /**
+     * Ids of the most popular products, best first.
+     */
+    public synchronized List<Long> top(int limit) {
+        List<Long> ids = new ArrayList<>(Math.min(limit, top.size()));
+        for (Ranked entry : top) {
+            if (ids.size() == limit) {
+                break;
+            }
+            ids.add(entry.productId());
+        }
+        return ids;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        try {
+            reload();
+        } catch (Exception e) {
+            log.warn("Cannot load product popularity: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Writes the sales recorded since the last run, drops scores that have decayed to nothing and
+     * reloads the table.
+     */
+    @Scheduled(initialDelayString = "${app.popularity.flush-ms:300000}", fixedDelayString = "${app.popularity.flush-ms:300000}")
+    public void flush() {
+        try {
+            writePending();
+            repository.deleteDecayed(LocalDateTime.now(), halfLifeMillis / 1000, minScore);
+            reload();
+        } catch (Exception e) {
+            log.warn("Cannot flush product popularity: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void onShutdown() {
+        try {
+            writePending();
+        } catch (Exception e) {
+            log.warn("Cannot write product popularity on shutdown, {} products lost: {}", pending.size(), e.getMessage());
+        }
+    }
+
+    private void add(Long productId, int quantity, long at) {
+        double weight = quantity * forwardFactor(at);
+        pending.merge(productId, new Pending(weight, quantity), Pending::plus);
+        offer(productId, weightOf(productId));
+    }
+
+    private void writePending() {
+        LocalDateTime now = LocalDateTime.now();
+        double decay = forwardFactor(toMillis(now));
+        for (Long productId : new ArrayList<>(pending.keySet())) {
+            Pending delta = pending.remove(productId);
+            if (delta == null) {
+                continue;
+            }
+            try {
+                repository.addScore(productId, delta.weight() / decay, delta.sold(), now, halfLifeMillis / 1000);
+            } catch (RuntimeException e) {
+                // keep it for the next run
+                pending.merge(productId, delta, Pending::plus);
+                throw e;
+            }
+        }
+    }
+
+    private void reload() {
+        Map<Long, Double> loaded = new HashMap<>();
+        for (ProductPopularity row : repository.findAllForLiveProducts()) {
+            loaded.put(row.getProductId(), row.getScore() * forwardFactor(toMillis(row.getScoredAt())));
+        }
+        stored = loaded;
+
+        Map<Long, Double> scores = new HashMap<>();
+        double decay = forwardFactor(System.currentTimeMillis());
+        synchronized (this) {
+            rebuildTop();
+            for (Long productId : productIds()) {
+                scores.put(productId, weightOf(productId) / decay);
+            }
+        }
+        searchIndex.updatePopularity(scores);
+    }
+
+    private double weightOf(Long productId) {
+        Pending delta = pending.get(productId);
+        return stored.getOrDefault(productId, 0d) + (delta == null ? 0 : delta.weight());
+    }
+
+    private synchronized void offer(Long productId, double weight) {
+        Ranked previous = ranked.remove(productId);
+        if (previous != null) {
+            top.remove(previous);
+            // a product that lost weight may now rank below one that is not in the set
+            if (weight < previous.weight() && top.size() + 1 == k) {
+                rebuildTop();
+                return;
+            }
+        }
+        insert(new Ranked(productId, weight));
+    }
+
+    private void insert(Ranked entry) {
+        if (entry.weight() <= 0) {
+            return;
+        }
+        if (top.size() == k && BY_WEIGHT.compare(entry, top.last()) >= 0) {
+            return;
+        }
+        top.add(entry);
+        ranked.put(entry.productId(), entry);
+        if (top.size() > k) {
+            ranked.remove(top.pollLast().productId());
+        }
+    }
+
+    private void rebuildTop() {
+        top.clear();
+        ranked.clear();
+        for (Long productId : productIds()) {
+            insert(new Ranked(productId, weightOf(productId)));
+        }
+    }
+
+    private Set<Long> productIds() {
+        Set<Long> ids = new HashSet<>(stored.keySet());
+        ids.addAll(pending.keySet());
+        return ids;
+    }
+
+    private double forwardFactor(long atMillis) {
+        return Math.pow(2, (atMillis - landmark) / halfLifeMillis);
+    }
+
+    private static long toMillis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private record Ranked(long productId, double weight) {
+    }
+
+    private record Pending(double weight, long sold) {
+
+        Pending plus(Pending other) {
+            return new Pending(weight + other.weight, sold + other.sold);
+        }
+    }
+}
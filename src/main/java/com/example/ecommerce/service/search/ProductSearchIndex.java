@@ -0,0 +1,597 @@
+package com.example.ecommerce.service.search;
+
+import com.example.ecommerce.model.dto.response.ProductFacets;
+import com.example.ecommerce.model.dto.response.SuggestionResponse;
+import com.example.ecommerce.model.entity.Category;
+import com.example.ecommerce.model.projection.ProductSearchDocument;
+import com.example.ecommerce.repository.CategoryRepository;
+import com.example.ecommerce.repository.ProductRepository;
+import com.example.ecommerce.util.AfterCommit;
+import com.example.ecommerce.util.TextAnalyzer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * In-memory inverted index over product name and description, used instead of the
+ * {@code LIKE '%term%'} scans. Every query term must match; the last one also matches as a prefix so
+ * results show up while the user is still typing. Hits are ranked by term weight (name matches count
+ * more than description matches) times inverse document frequency.
+ * <p>
+ * Each generation also holds the trigram index behind the fuzzy fallback, the autocomplete trie
+ * of product and category names, and a columnar snapshot for facet counts that is rebuilt on the
+ * first faceted query after a product or category change.
+ * <p>
+ * The index is loaded at startup and kept current from product and category writes after they
+ * commit. A periodic rebuild picks up writes made by other instances.
+ */
+@Slf4j
+@Component
+public class ProductSearchIndex {
+
+    private static final float NAME_WEIGHT = 3f;
+    private static final float PREFIX_DISCOUNT = 0.8f;
+
+    private static final Comparator<Hit> BY_RELEVANCE = Comparator.comparingDouble(Hit::score).reversed()
+            .thenComparingLong(Hit::id);
+
+    private final ProductRepository productRepository;
+    private final CategoryRepository categoryRepository;
+    private final int buildBatchSize;
+    private final int fuzzyConcurrency;
+    private final double fuzzyMinSimilarity;
+    private final int fuzzyMaxResults;
+    private final int suggestMaxResults;
+    private final BigDecimal[] priceEdges;
+    private final long[] priceEdgeCents;
+
+    private volatile Segment segment;
+    // latest product popularity, seeds the suggestion ranking of rebuilt segments
+    private volatile Map<Long, Double> popularity = Map.of();
+    private volatile boolean ready;
+    // changes applied while a rebuild is loading, replayed on the new segment before it is swapped in
+    private List<Consumer<Segment>> replay;
+
+    public ProductSearchIndex(ProductRepository productRepository,
+                              CategoryRepository categoryRepository,
+                              @Value("${app.search.build-batch-size:1000}") int buildBatchSize,
+                              @Value("${app.search.fuzzy.concurrency:4}") int fuzzyConcurrency,
+                              @Value("${app.search.fuzzy.min-similarity:0.3}") double fuzzyMinSimilarity,
+                              @Value("${app.search.fuzzy.max-results:50}") int fuzzyMaxResults,
+                              @Value("${app.search.suggest.max-results:10}") int suggestMaxResults,
+                              @Value("${app.search.facets.price-buckets:0,25,50,100,250,500,1000}") String priceBuckets) {
+        this.productRepository = productRepository;
+        this.categoryRepository = categoryRepository;
+        this.buildBatchSize = buildBatchSize;
+        this.fuzzyConcurrency = fuzzyConcurrency;
+        this.fuzzyMinSimilarity = fuzzyMinSimilarity;
+        this.fuzzyMaxResults = fuzzyMaxResults;
+        this.suggestMaxResults = suggestMaxResults;
+        this.priceEdges = Arrays.stream(priceBuckets.split(","))
+                .map(String::trim)
+                .map(BigDecimal::new)
+                .sorted()
+                .distinct()
+                .toArray(BigDecimal[]::new);
+        this.priceEdgeCents = Arrays.stream(priceEdges).mapToLong(FacetSnapshot::toCents).toArray();
+        this.segment = newSegment();
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        rebuild();
+    }
+
+    @Scheduled(initialDelayString = "${app.search.rebuild-ms:900000}", fixedDelayString = "${app.search.rebuild-ms:900000}")
+    public void rebuild() {
+        synchronized (this) {
+            if (replay != null) {
+                return;
+            }
+            replay = new ArrayList<>();
+        }
+
+        Segment fresh = newSegment();
+        try {
+            for (Category category : categoryRepository.findAll()) {
+                fresh.putCategory(category.getId(), category.getName());
+            }
+            long afterId = 0;
+            List<ProductSearchDocument> batch;
+            do {
+                batch = productRepository.findSearchDocuments(afterId, PageRequest.of(0, buildBatchSize));
+                for (ProductSearchDocument document : batch) {
+                    fresh.put(document);
+                    afterId = document.id();
+                }
+            } while (batch.size() == buildBatchSize);
+        } catch (Exception e) {
+            log.warn("Cannot build the product search index: {}", e.getMessage());
+            synchronized (this) {
+                replay = null;
+            }
+            return;
+        }
+
+        synchronized (this) {
+            replay.forEach(change -> change.accept(fresh));
+            replay = null;
+            segment = fresh;
+            ready = true;
+        }
+        log.info("Product search index built with {} products", fresh.documents.size());
+    }
+
+    public void index(ProductSearchDocument document) {
+        apply(segment -> segment.put(document));
+    }
+
+    public void remove(Long productId) {
+        apply(segment -> segment.remove(productId));
+    }
+
+    public void updateStock(Long productId, int stockQuantity) {
+        apply(segment -> segment.updateStock(productId, stockQuantity));
+    }
+
+    public void updatePriceAndStock(Long productId, BigDecimal price, int stockQuantity) {
+        apply(segment -> segment.updatePriceAndStock(productId, price, stockQuantity));
+    }
+
+    public void putCategory(Long categoryId, String categoryName) {
+        apply(segment -> segment.putCategory(categoryId, categoryName));
+    }
+
+    public void renameCategory(Long categoryId, String categoryName) {
+        apply(segment -> segment.renameCategory(categoryId, categoryName));
+    }
+
+    public void removeCategory(Long categoryId) {
+        apply(segment -> segment.removeCategory(categoryId));
+    }
+
+    /**
+     * Re-ranks product suggestions by popularity score; products missing from the map score 0.
+     */
+    public void updatePopularity(Map<Long, Double> scores) {
+        Map<Long, Double> copy = Map.copyOf(scores);
+        popularity = copy;
+        applyNow(segment -> segment.updatePopularity(copy));
+    }
+
+    /**
+     * Returns the ids of matching products for the requested page, best match first.
+     */
+    public Page<Long> search(String text, String category, BigDecimal minPrice, BigDecimal maxPrice,
+                             Boolean inStock, Pageable pageable) {
+        List<String> terms = TextAnalyzer.tokenize(text);
+        if (terms.isEmpty()) {
+            return Page.empty(pageable);
+        }
+
+        String categoryKey = category == null || category.isBlank() ? null : category.trim().toLowerCase(Locale.ROOT);
+        boolean onlyInStock = Boolean.TRUE.equals(inStock);
+
+        int limit = (int) Math.min(Integer.MAX_VALUE, pageable.getOffset() + pageable.getPageSize());
+        PriorityQueue<Hit> top = new PriorityQueue<>(BY_RELEVANCE.reversed());
+        int[] total = {0};
+
+        forEachMatch(segment, terms, product -> product.matches(categoryKey, minPrice, maxPrice, onlyInStock),
+                (id, score) -> {
+                    total[0]++;
+                    top.offer(new Hit(id, score));
+                    if (top.size() > limit) {
+                        top.poll();
+                    }
+                });
+
+        List<Hit> ranked = new ArrayList<>(top);
+        ranked.sort(BY_RELEVANCE);
+        List<Long> ids = ranked.stream()
+                .skip(pageable.getOffset())
+                .map(Hit::id)
+                .toList();
+        return new PageImpl<>(ids, pageable, total[0]);
+    }
+
+    /**
+     * Same matching as {@link #search}, plus category, stock and price-range counts for the filtered
+     * result, computed in one scan of the facet snapshot. Without text every product is a candidate
+     * and the page is in id order.
+     */
+    public FacetedIds searchFaceted(String text, String category, BigDecimal minPrice, BigDecimal maxPrice,
+                                    Boolean inStock, Pageable pageable) {
+        Segment current = segment;
+        FacetSnapshot snapshot = facets(current);
+        FacetSnapshot.Query query = new FacetSnapshot.Query(category, minPrice, maxPrice, Boolean.TRUE.equals(inStock));
+        int limit = (int) Math.min(Integer.MAX_VALUE, pageable.getOffset() + pageable.getPageSize());
+
+        FacetSnapshot.Result result;
+        List<String> terms = TextAnalyzer.tokenize(text);
+        if (terms.isEmpty()) {
+            result = snapshot.count(null, null, 0, query, priceEdgeCents, limit);
+        } else {
+            Candidates candidates = new Candidates();
+            forEachMatch(current, terms, product -> true, (id, score) -> {
+                int row = snapshot.rowOf(id);
+                if (row >= 0) {
+                    candidates.add(row, score);
+                }
+            });
+            result = snapshot.count(candidates.rows, candidates.scores, candidates.size, query, priceEdgeCents, limit);
+        }
+
+        List<Long> ids = result.productIds().stream()
+                .skip(pageable.getOffset())
+                .toList();
+        return new FacetedIds(new PageImpl<>(ids, pageable, result.total()), toFacets(result));
+    }
+
+    /**
+     * Typo-tolerant name lookup for when {@link #search} finds nothing ("did you mean"). Returns at
+     * most {@code app.search.fuzzy.max-results} ids, closest names first.
+     */
+    public Page<Long> searchFuzzy(String text, Pageable pageable) {
+        List<Long> matches = segment.trigrams.search(text, fuzzyMinSimilarity, fuzzyMaxResults);
+        List<Long> ids = matches.stream()
+                .skip(pageable.getOffset())
+                .limit(pageable.getPageSize())
+                .toList();
+        return new PageImpl<>(ids, pageable, matches.size());
+    }
+
+    /**
+     * Product and category names completing the prefix, best ranked first.
+     */
+    public List<SuggestionResponse> suggest(String prefix, int limit) {
+        return segment.suggestions.suggest(prefix, Math.min(limit, suggestMaxResults))
+                .stream()
+                .map(suggestion -> new SuggestionResponse(suggestion.type().name(), suggestion.id(), suggestion.name()))
+                .toList();
+    }
+
+    /**
+     * The facet snapshot of the segment, rebuilt if a product or category changed since it was taken.
+     * Writers hold the index lock, so the segment cannot change while it is copied.
+     */
+    private FacetSnapshot facets(Segment current) {
+        FacetSnapshot snapshot = current.facets;
+        if (snapshot != null && snapshot.version == current.version) {
+            return snapshot;
+        }
+        synchronized (this) {
+            snapshot = current.facets;
+            if (snapshot == null || snapshot.version != current.version) {
+                snapshot = current.buildFacets();
+                current.facets = snapshot;
+            }
+            return snapshot;
+        }
+    }
+
+    private ProductFacets toFacets(FacetSnapshot.Result result) {
+        List<ProductFacets.CategoryCount> categories = result.categories().stream()
+                .map(count -> new ProductFacets.CategoryCount(count.categoryId(), count.name(), count.count()))
+                .toList();
+        List<ProductFacets.PriceRange> priceRanges = new ArrayList<>(priceEdges.length);
+        for (int i = 0; i < priceEdges.length; i++) {
+            BigDecimal to = i + 1 < priceEdges.length ? priceEdges[i + 1] : null;
+            priceRanges.add(new ProductFacets.PriceRange(priceEdges[i], to, result.priceCounts()[i]));
+        }
+        return new ProductFacets(categories, priceRanges, result.inStock(), result.outOfStock());
+    }
+
+    /**
+     * Calls {@code consumer} with the relevance score of every product that contains all the terms
+     * (the last one as a prefix) and passes {@code filter}.
+     */
+    private static void forEachMatch(Segment current, List<String> terms, Predicate<IndexedProduct> filter,
+                                     MatchConsumer consumer) {
+        List<Map<Long, Float>> postings = new ArrayList<>(terms.size());
+        List<Integer> frequencies = new ArrayList<>(terms.size());
+        for (String term : terms.subList(0, terms.size() - 1)) {
+            Map<Long, Float> posting = current.postings.get(term);
+            if (posting == null || posting.isEmpty()) {
+                return;
+            }
+            postings.add(posting);
+            frequencies.add(posting.size());
+        }
+        Map<Long, Float> rarest = postings.stream().min(Comparator.comparingInt(Map::size)).orElse(null);
+        PrefixPostings prefix = current.prefixPostings(terms.get(terms.size() - 1), rarest);
+        if (prefix.weights().isEmpty()) {
+            return;
+        }
+        postings.add(prefix.weights());
+        frequencies.add(prefix.documentFrequency());
+
+        double documentCount = Math.max(1, current.documents.size());
+        double[] idf = new double[postings.size()];
+        for (int i = 0; i < idf.length; i++) {
+            idf[i] = Math.log(1 + documentCount / frequencies.get(i));
+        }
+        Map<Long, Float> smallest = postings.stream().min(Comparator.comparingInt(Map::size)).orElseThrow();
+
+        candidates:
+        for (Long id : smallest.keySet()) {
+            IndexedProduct product = current.documents.get(id);
+            if (product == null || !filter.test(product)) {
+                continue;
+            }
+
+            double score = 0;
+            for (int i = 0; i < idf.length; i++) {
+                Float weight = postings.get(i).get(id);
+                if (weight == null) {
+                    continue candidates;
+                }
+                score += weight * idf[i];
+            }
+            consumer.accept(id, score);
+        }
+    }
+
+    private Segment newSegment() {
+        return new Segment(fuzzyConcurrency, suggestMaxResults, popularity);
+    }
+
+    private void apply(Consumer<Segment> change) {
+        AfterCommit.run(() -> applyNow(change));
+    }
+
+    private synchronized void applyNow(Consumer<Segment> change) {
+        change.accept(segment);
+        if (replay != null) {
+            replay.add(change);
+        }
+    }
+
+    /**
+     * Ids of one page of a faceted search, with the facet counts of the whole filtered result.
+     */
+    public record FacetedIds(Page<Long> ids, ProductFacets facets) {
+    }
+
+    @FunctionalInterface
+    private interface MatchConsumer {
+        void accept(Long id, double score);
+    }
+
+    private record Hit(long id, double score) {
+    }
+
+    private record PrefixPostings(Map<Long, Float> weights, int documentFrequency) {
+    }
+
+    /**
+     * Snapshot rows matched by the text query, with their scores, in two growing parallel arrays.
+     */
+    private static final class Candidates {
+
+        private int[] rows = new int[64];
+        private double[] scores = new double[64];
+        private int size;
+
+        void add(int row, double score) {
+            if (size == rows.length) {
+                rows = Arrays.copyOf(rows, size * 2);
+                scores = Arrays.copyOf(scores, size * 2);
+            }
+            rows[size] = row;
+            scores[size] = score;
+            size++;
+        }
+    }
+
+    private record IndexedProduct(Long categoryId, String categoryName, BigDecimal price, int stockQuantity,
+                                  Set<String> terms) {
+
+        boolean matches(String categoryKey, BigDecimal minPrice, BigDecimal maxPrice, boolean onlyInStock) {
+            return (categoryKey == null || categoryKey.equals(categoryName))
+                    && (minPrice == null || price.compareTo(minPrice) >= 0)
+                    && (maxPrice == null || price.compareTo(maxPrice) <= 0)
+                    && (!onlyInStock || stockQuantity > 0);
+        }
+    }
+
+    /**
+     * One generation of the index. Writers are serialized by the enclosing index; readers run lock-free
+     * against the concurrent maps and may briefly see a product half re-indexed. Every change that adds,
+     * removes, re-categorizes or re-prices a product bumps {@code version}, which invalidates the facet
+     * snapshot.
+     */
+    private static final class Segment {
+
+        private final Map<Long, IndexedProduct> documents = new ConcurrentHashMap<>();
+        private final ConcurrentSkipListMap<String, Map<Long, Float>> postings = new ConcurrentSkipListMap<>();
+        private final TrigramIndex trigrams;
+        private final SuggestionIndex suggestions;
+        private final Map<Long, String> categoryNames = new ConcurrentHashMap<>();
+
+        private volatile long version;
+        private volatile FacetSnapshot facets;
+        private Map<Long, Double> popularity;
+
+        Segment(int fuzzyConcurrency, int suggestMaxResults, Map<Long, Double> popularity) {
+            this.trigrams = new TrigramIndex(fuzzyConcurrency);
+            this.suggestions = new SuggestionIndex(suggestMaxResults);
+            this.popularity = popularity;
+        }
+
+        void put(ProductSearchDocument document) {
+            remove(document.id());
+
+            Map<String, Float> weights = new HashMap<>();
+            for (String term : TextAnalyzer.tokenize(document.name())) {
+                weights.merge(term, NAME_WEIGHT, Float::sum);
+            }
+            for (String term : TextAnalyzer.tokenize(document.description())) {
+                weights.merge(term, 1f, Float::sum);
+            }
+
+            weights.forEach((term, raw) -> postings
+                    .computeIfAbsent(term, t -> new ConcurrentHashMap<>())
+                    .put(document.id(), 1f + (float) Math.log(raw)));
+
+            documents.put(document.id(), new IndexedProduct(
+                    document.categoryId(),
+                    document.categoryName() == null ? null : document.categoryName().toLowerCase(Locale.ROOT),
+                    document.price(),
+                    document.stockQuantity() == null ? 0 : document.stockQuantity(),
+                    new HashSet<>(weights.keySet())));
+            trigrams.put(document.id(), document.name());
+            suggestions.put(SuggestionIndex.Type.PRODUCT, document.id(), document.name(),
+                    popularity.getOrDefault(document.id(), 0d));
+            if (document.categoryId() != null && document.categoryName() != null) {
+                categoryNames.put(document.categoryId(), document.categoryName());
+            }
+            version++;
+        }
+
+        void putCategory(Long categoryId, String categoryName) {
+            suggestions.put(SuggestionIndex.Type.CATEGORY, categoryId, categoryName, 0);
+            if (categoryName != null) {
+                categoryNames.put(categoryId, categoryName);
+            }
+            version++;
+        }
+
+        void remove(Long id) {
+            version++;
+            trigrams.remove(id);
+            suggestions.remove(SuggestionIndex.Type.PRODUCT, id);
+            IndexedProduct previous = documents.remove(id);
+            if (previous == null) {
+                return;
+            }
+            for (String term : previous.terms()) {
+                postings.computeIfPresent(term, (t, posting) -> {
+                    posting.remove(id);
+                    return posting.isEmpty() ? null : posting;
+                });
+            }
+        }
+
+        void updateStock(Long id, int stockQuantity) {
+            documents.computeIfPresent(id, (key, product) -> new IndexedProduct(product.categoryId(),
+                    product.categoryName(), product.price(), stockQuantity, product.terms()));
+            FacetSnapshot snapshot = facets;
+            if (snapshot != null) {
+                snapshot.updateStock(id, stockQuantity);
+            }
+        }
+
+        void updatePriceAndStock(Long id, BigDecimal price, int stockQuantity) {
+            IndexedProduct product = documents.get(id);
+            if (product == null) {
+                return;
+            }
+            if (product.price() != null && product.price().compareTo(price) == 0) {
+                updateStock(id, stockQuantity);
+                return;
+            }
+            documents.put(id, new IndexedProduct(product.categoryId(), product.categoryName(), price,
+                    stockQuantity, product.terms()));
+            version++;
+        }
+
+        void renameCategory(Long categoryId, String categoryName) {
+            putCategory(categoryId, categoryName);
+            String key = categoryName == null ? null : categoryName.toLowerCase(Locale.ROOT);
+            documents.replaceAll((id, product) -> categoryId.equals(product.categoryId())
+                    ? new IndexedProduct(categoryId, key, product.price(), product.stockQuantity(), product.terms())
+                    : product);
+        }
+
+        void removeCategory(Long categoryId) {
+            List<Long> ids = documents.entrySet().stream()
+                    .filter(entry -> categoryId.equals(entry.getValue().categoryId()))
+                    .map(Map.Entry::getKey)
+                    .toList();
+            ids.forEach(this::remove);
+            suggestions.remove(SuggestionIndex.Type.CATEGORY, categoryId);
+            categoryNames.remove(categoryId);
+            version++;
+        }
+
+        void updatePopularity(Map<Long, Double> scores) {
+            Set<Long> changed = new HashSet<>(popularity.keySet());
+            changed.addAll(scores.keySet());
+            popularity = scores;
+            for (Long id : changed) {
+                suggestions.updateScore(SuggestionIndex.Type.PRODUCT, id, scores.getOrDefault(id, 0d));
+            }
+        }
+
+        FacetSnapshot buildFacets() {
+            long snapshotVersion = version;
+            FacetSnapshot.Builder builder = new FacetSnapshot.Builder();
+            categoryNames.forEach(builder::category);
+            documents.forEach((id, product) -> builder.add(id,
+                    product.categoryId() == null ? 0 : product.categoryId(),
+                    product.price(), product.stockQuantity()));
+            return builder.build(snapshotVersion);
+        }
+
+        /**
+         * Union of the postings of every term starting with the prefix, keeping the best weight per
+         * product. Exact matches keep their full weight, completions are discounted.
+         * <p>
+         * Every completion is merged, so short prefixes neither lose matches nor undercount the total.
+         * When other terms are present, only products in {@code within} (the rarest of their postings)
+         * are merged, which keeps a one-letter prefix from copying most of the catalog. The merged map's
+         * size then no longer gives the prefix's document frequency, so it is estimated from the sizes of
+         * the completions' postings, capped at the catalog size.
+         */
+        PrefixPostings prefixPostings(String prefix, Map<Long, Float> within) {
+            Map<Long, Float> merged = new HashMap<>();
+            long postingSizes = 0;
+            for (Map.Entry<String, Map<Long, Float>> entry
+                    : postings.subMap(prefix, true, prefix + Character.MAX_VALUE, false).entrySet()) {
+                float factor = entry.getKey().length() == prefix.length() ? 1f : PREFIX_DISCOUNT;
+                Map<Long, Float> posting = entry.getValue();
+                if (within == null) {
+                    posting.forEach((id, weight) -> merged.merge(id, weight * factor, Math::max));
+                    continue;
+                }
+                postingSizes += posting.size();
+                Map<Long, Float> smaller = posting.size() < within.size() ? posting : within;
+                for (Long id : smaller.keySet()) {
+                    Float weight = posting.get(id);
+                    if (weight != null && within.containsKey(id)) {
+                        merged.merge(id, weight * factor, Math::max);
+                    }
+                }
+            }
+            int frequency = within == null ? merged.size() : (int) Math.min(postingSizes, documents.size());
+            return new PrefixPostings(merged, Math.max(1, frequency));
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.ecommerce.service.search;
+
+import com.example.ecommerce.repository.ProductRepository;
+import com.example.ecommerce.util.TextAnalyzer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Fills products.search_key for rows written before the column existed. New and updated rows get
+ * their key from the entity callbacks, so this only has work to do once.
+ */
+@Slf4j
+@Component
+public class SearchKeyBackfill {
+
+    private final ProductRepository productRepository;
+    private final int batchSize;
+
+    public SearchKeyBackfill(ProductRepository productRepository,
+                             @Value("${app.search.build-batch-size:1000}") int batchSize) {
+        this.productRepository = productRepository;
+        this.batchSize = batchSize;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        int total = 0;
+        List<ProductRepository.SearchKeyBackfillView> batch;
+        do {
+            batch = productRepository.findWithoutSearchKey(PageRequest.of(0, batchSize));
+            for (ProductRepository.SearchKeyBackfillView product : batch) {
+                productRepository.updateSearchKey(product.getId(), TextAnalyzer.searchKey(product.getName()));
+            }
+            total += batch.size();
+        } while (batch.size() == batchSize);
+
+        if (total > 0) {
+            log.info("Backfilled search keys for {} products", total);
+        }
+    }
+}
@@ -0,0 +1,329 @@
+package com.example.ecommerce.service.search;
+
+import com.example.ecommerce.util.TextAnalyzer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Radix trie of product and category names for autocomplete. A name is inserted under the normalized
+ * suffix starting at each of its words, so "galaxy" completes "Samsung Galaxy S24". Every node caches
+ * the best {@code k} suggestions of its subtree, so a lookup is one walk down the prefix and a copy of
+ * that list, whatever the size of the catalog.
+ */
+class SuggestionIndex {
+
+    private static final int MAX_WORDS = 8;
+    private static final Suggestion[] NONE = new Suggestion[0];
+
+    static final Comparator<Suggestion> RANKING = Comparator.comparingDouble(Suggestion::score).reversed()
+            .thenComparingInt(suggestion -> suggestion.name().length())
+            .thenComparing(Suggestion::name)
+            .thenComparing(Suggestion::type)
+            .thenComparing(Suggestion::id);
+
+    enum Type {
+        PRODUCT, CATEGORY
+    }
+
+    record Suggestion(Type type, Long id, String name, double score) {
+
+        boolean sameEntry(Suggestion other) {
+            return type == other.type && id.equals(other.id);
+        }
+    }
+
+    private final int k;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Node root = new Node("");
+    private final Map<String, Suggestion> entries = new HashMap<>();
+
+    SuggestionIndex(int k) {
+        this.k = k;
+    }
+
+    void put(Type type, Long id, String name, double score) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(type, id);
+            if (name == null || name.isBlank()) {
+                return;
+            }
+            Suggestion suggestion = new Suggestion(type, id, name, score);
+            entries.put(entryKey(type, id), suggestion);
+            for (String key : keys(name)) {
+                insert(key, suggestion);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void remove(Type type, Long id) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(type, id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Re-ranks an entry that is already indexed; unknown entries are ignored.
+     */
+    void updateScore(Type type, Long id, double score) {
+        lock.writeLock().lock();
+        try {
+            Suggestion current = entries.get(entryKey(type, id));
+            if (current != null && current.score() != score) {
+                removeLocked(type, id);
+                Suggestion updated = new Suggestion(type, id, current.name(), score);
+                entries.put(entryKey(type, id), updated);
+                for (String key : keys(current.name())) {
+                    insert(key, updated);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    List<Suggestion> suggest(String prefix, int limit) {
+        String key = TextAnalyzer.searchKey(prefix);
+        if (key.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+
+        lock.readLock().lock();
+        try {
+            Node node = root;
+            int position = 0;
+            while (position < key.length()) {
+                Node child = node.child(key.charAt(position));
+                if (child == null) {
+                    return List.of();
+                }
+                int matched = commonPrefix(child.label, key, position);
+                if (position + matched == key.length()) {
+                    node = child;
+                    break;
+                }
+                if (matched < child.label.length()) {
+                    return List.of();
+                }
+                position += matched;
+                node = child;
+            }
+            return List.of(Arrays.copyOf(node.top, Math.min(limit, node.top.length)));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void removeLocked(Type type, Long id) {
+        Suggestion previous = entries.remove(entryKey(type, id));
+        if (previous == null) {
+            return;
+        }
+        for (String key : keys(previous.name())) {
+            delete(key, previous);
+        }
+    }
+
+    private void insert(String key, Suggestion suggestion) {
+        List<Node> path = new ArrayList<>();
+        Node node = root;
+        path.add(node);
+        int position = 0;
+        while (position < key.length()) {
+            Node child = node.child(key.charAt(position));
+            if (child == null) {
+                child = new Node(key.substring(position));
+                node.addChild(child);
+                position = key.length();
+            } else {
+                int matched = commonPrefix(child.label, key, position);
+                if (matched < child.label.length()) {
+                    child = node.split(child, matched);
+                }
+                position += matched;
+            }
+            node = child;
+            path.add(node);
+        }
+
+        node.own = append(node.own, suggestion);
+        for (Node onPath : path) {
+            onPath.offer(suggestion, k);
+        }
+    }
+
+    private void delete(String key, Suggestion suggestion) {
+        List<Node> path = new ArrayList<>();
+        Node node = root;
+        path.add(node);
+        int position = 0;
+        while (position < key.length()) {
+            Node child = node.child(key.charAt(position));
+            if (child == null || !key.startsWith(child.label, position)) {
+                return;
+            }
+            position += child.label.length();
+            node = child;
+            path.add(node);
+        }
+
+        node.own = Arrays.stream(node.own)
+                .filter(own -> !own.sameEntry(suggestion))
+                .toArray(Suggestion[]::new);
+
+        for (int i = path.size() - 1; i >= 0; i--) {
+            Node onPath = path.get(i);
+            if (i > 0 && onPath.own.length == 0 && onPath.children.length == 0) {
+                path.get(i - 1).removeChild(onPath);
+                continue;
+            }
+            if (onPath.contains(suggestion)) {
+                onPath.recomputeTop(k);
+            }
+        }
+    }
+
+    /**
+     * The normalized suffixes starting at each word: "samsung galaxy s24", "galaxy s24", "s24".
+     */
+    private static List<String> keys(String name) {
+        List<String> words = TextAnalyzer.tokenize(name);
+        List<String> keys = new ArrayList<>(Math.min(words.size(), MAX_WORDS));
+        for (int i = 0; i < words.size() && i < MAX_WORDS; i++) {
+            String key = String.join(" ", words.subList(i, words.size()));
+            if (!keys.contains(key)) {
+                keys.add(key);
+            }
+        }
+        return keys;
+    }
+
+    private static int commonPrefix(String label, String key, int offset) {
+        int max = Math.min(label.length(), key.length() - offset);
+        int i = 0;
+        while (i < max && label.charAt(i) == key.charAt(offset + i)) {
+            i++;
+        }
+        return i;
+    }
+
+    private static String entryKey(Type type, Long id) {
+        return type.name() + ':' + id;
+    }
+
+    private static Suggestion[] append(Suggestion[] array, Suggestion suggestion) {
+        Suggestion[] grown = Arrays.copyOf(array, array.length + 1);
+        grown[array.length] = suggestion;
+        return grown;
+    }
+
+    private static final class Node {
+
+        private String label;
+        private char[] firsts = new char[0];
+        private Node[] children = new Node[0];
+        private Suggestion[] own = NONE;
+        private Suggestion[] top = NONE;
+
+        Node(String label) {
+            this.label = label;
+        }
+
+        Node child(char first) {
+            int index = Arrays.binarySearch(firsts, first);
+            return index >= 0 ? children[index] : null;
+        }
+
+        void addChild(Node child) {
+            int index = -Arrays.binarySearch(firsts, child.label.charAt(0)) - 1;
+            char[] newFirsts = new char[firsts.length + 1];
+            Node[] newChildren = new Node[children.length + 1];
+            System.arraycopy(firsts, 0, newFirsts, 0, index);
+            System.arraycopy(children, 0, newChildren, 0, index);
+            newFirsts[index] = child.label.charAt(0);
+            newChildren[index] = child;
+            System.arraycopy(firsts, index, newFirsts, index + 1, firsts.length - index);
+            System.arraycopy(children, index, newChildren, index + 1, children.length - index);
+            firsts = newFirsts;
+            children = newChildren;
+        }
+
+        void removeChild(Node child) {
+            int index = Arrays.binarySearch(firsts, child.label.charAt(0));
+            if (index < 0 || children[index] != child) {
+                return;
+            }
+            char[] newFirsts = new char[firsts.length - 1];
+            Node[] newChildren = new Node[children.length - 1];
+            System.arraycopy(firsts, 0, newFirsts, 0, index);
+            System.arraycopy(children, 0, newChildren, 0, index);
+            System.arraycopy(firsts, index + 1, newFirsts, index, firsts.length - index - 1);
+            System.arraycopy(children, index + 1, newChildren, index, children.length - index - 1);
+            firsts = newFirsts;
+            children = newChildren;
+        }
+
+        /**
+         * Splits the edge to {@code child} after {@code at} chars and returns the new middle node.
+         */
+        Node split(Node child, int at) {
+            Node middle = new Node(child.label.substring(0, at));
+            middle.top = child.top;
+            children[Arrays.binarySearch(firsts, child.label.charAt(0))] = middle;
+            child.label = child.label.substring(at);
+            middle.addChild(child);
+            return middle;
+        }
+
+        boolean contains(Suggestion suggestion) {
+            for (Suggestion candidate : top) {
+                if (candidate.sameEntry(suggestion)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        void offer(Suggestion suggestion, int k) {
+            if (contains(suggestion)) {
+                return;
+            }
+            if (top.length == k && RANKING.compare(suggestion, top[k - 1]) >= 0) {
+                return;
+            }
+            Suggestion[] merged = append(top, suggestion);
+            Arrays.sort(merged, RANKING);
+            top = merged.length > k ? Arrays.copyOf(merged, k) : merged;
+        }
+
+        void recomputeTop(int k) {
+            List<Suggestion> candidates = new ArrayList<>(Arrays.asList(own));
+            for (Node child : children) {
+                candidates.addAll(Arrays.asList(child.top));
+            }
+            candidates.sort(RANKING);
+            List<Suggestion> best = new ArrayList<>(k);
+            for (Suggestion candidate : candidates) {
+                if (best.size() == k) {
+                    break;
+                }
+                if (best.stream().noneMatch(candidate::sameEntry)) {
+                    best.add(candidate);
+                }
+            }
+            top = best.toArray(Suggestion[]::new);
+        }
+    }
+}
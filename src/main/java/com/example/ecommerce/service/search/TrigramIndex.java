@@ -0,0 +1,268 @@
+package com.example.ecommerce.service.search;
+
+import com.example.ecommerce.util.TextAnalyzer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Trigram index over product names for typo-tolerant matching. Each name is split into the trigrams of
+ * its normalized words ({@code $word$}); a product matches when its name contains enough of the query
+ * trigrams, so a misspelled word still shares most of its trigrams with the real one.
+ * <p>
+ * Products are numbered with dense int ordinals and every posting list is a growing {@code int[]} of
+ * ordinals in ascending order, so a million names fit in a few tens of megabytes. Updates append a new
+ * ordinal and tombstone the old one; the arrays are compacted once a quarter of them is dead.
+ */
+class TrigramIndex {
+
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final long SCRATCH_WAIT_MS = 200;
+    private static final Comparator<Match> BY_SCORE = Comparator.comparingDouble(Match::coverage)
+            .thenComparingDouble(Match::similarity)
+            .thenComparing(Comparator.comparingInt(Match::ordinal).reversed());
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, Posting> postings = new HashMap<>();
+    private final Map<Long, Integer> ordinals = new HashMap<>();
+    private final BitSet tombstones = new BitSet();
+
+    private long[] productIds = new long[INITIAL_CAPACITY];
+    private short[] gramCounts = new short[INITIAL_CAPACITY];
+    private String[] names = new String[INITIAL_CAPACITY];
+    private int size;
+
+    // reuses the buffers of concurrent fuzzy queries: each one holds a scratch while it runs
+    private final BlockingQueue<Scratch> scratches;
+
+    TrigramIndex(int concurrency) {
+        this.scratches = new ArrayBlockingQueue<>(concurrency);
+        for (int i = 0; i < concurrency; i++) {
+            scratches.add(new Scratch());
+        }
+    }
+
+    void put(Long productId, String name) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(productId);
+            long[] grams = trigrams(name);
+            if (grams.length == 0) {
+                return;
+            }
+            append(productId, name, grams);
+            if (tombstones.cardinality() * 4 > size && size > INITIAL_CAPACITY) {
+                compact();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void remove(Long productId) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(productId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns up to {@code limit} product ids whose names contain at least {@code minSimilarity} of the
+     * query trigrams, best match first. Ties go to the name closest in length (Dice similarity).
+     */
+    List<Long> search(String text, double minSimilarity, int limit) {
+        long[] queryGrams = trigrams(text);
+        if (queryGrams.length == 0 || limit <= 0) {
+            return List.of();
+        }
+        int required = Math.max(1, (int) Math.ceil(minSimilarity * queryGrams.length));
+
+        Scratch scratch = acquireScratch();
+        lock.readLock().lock();
+        try {
+            scratch.ensureCapacity(size);
+            int[] counts = scratch.counts;
+            int[] touched = scratch.touched;
+            int touchedCount = 0;
+            for (long gram : queryGrams) {
+                Posting posting = postings.get(gram);
+                if (posting == null) {
+                    continue;
+                }
+                int[] list = posting.ordinals;
+                for (int k = 0; k < posting.size; k++) {
+                    int ordinal = list[k];
+                    if (counts[ordinal]++ == 0) {
+                        touched[touchedCount++] = ordinal;
+                    }
+                }
+            }
+
+            PriorityQueue<Match> top = new PriorityQueue<>(BY_SCORE);
+            for (int k = 0; k < touchedCount; k++) {
+                int ordinal = touched[k];
+                int shared = counts[ordinal];
+                counts[ordinal] = 0;
+                if (shared < required || tombstones.get(ordinal)) {
+                    continue;
+                }
+                Match match = new Match(ordinal, (double) shared / queryGrams.length,
+                        2.0 * shared / (queryGrams.length + gramCounts[ordinal]));
+                if (top.size() < limit) {
+                    top.offer(match);
+                } else if (BY_SCORE.compare(match, top.peek()) > 0) {
+                    top.poll();
+                    top.offer(match);
+                }
+            }
+
+            List<Match> ranked = new ArrayList<>(top);
+            ranked.sort(BY_SCORE.reversed());
+            return ranked.stream().map(match -> productIds[match.ordinal()]).toList();
+        } finally {
+            lock.readLock().unlock();
+            scratches.offer(scratch);
+        }
+    }
+
+    /**
+     * Waits briefly for a pooled scratch, then falls back to a fresh one rather than blocking the
+     * request thread. Returning the extra scratch to a full pool drops it, and it replaces any scratch
+     * that was lost.
+     */
+    private Scratch acquireScratch() {
+        try {
+            Scratch scratch = scratches.poll(SCRATCH_WAIT_MS, TimeUnit.MILLISECONDS);
+            return scratch != null ? scratch : new Scratch();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a fuzzy search slot", e);
+        }
+    }
+
+    private void removeLocked(Long productId) {
+        Integer ordinal = ordinals.remove(productId);
+        if (ordinal != null) {
+            tombstones.set(ordinal);
+            names[ordinal] = null;
+        }
+    }
+
+    private void append(Long productId, String name, long[] grams) {
+        if (size == productIds.length) {
+            int capacity = size + (size >> 1);
+            productIds = Arrays.copyOf(productIds, capacity);
+            gramCounts = Arrays.copyOf(gramCounts, capacity);
+            names = Arrays.copyOf(names, capacity);
+        }
+        int ordinal = size++;
+        productIds[ordinal] = productId;
+        gramCounts[ordinal] = (short) Math.min(grams.length, Short.MAX_VALUE);
+        names[ordinal] = name;
+        ordinals.put(productId, ordinal);
+        for (long gram : grams) {
+            postings.computeIfAbsent(gram, g -> new Posting()).add(ordinal);
+        }
+    }
+
+    /**
+     * Renumbers the live products densely and rebuilds every posting list without the dead ordinals.
+     */
+    private void compact() {
+        long[] liveIds = new long[ordinals.size()];
+        String[] liveNames = new String[ordinals.size()];
+        int live = 0;
+        for (int ordinal = 0; ordinal < size; ordinal++) {
+            if (!tombstones.get(ordinal)) {
+                liveIds[live] = productIds[ordinal];
+                liveNames[live] = names[ordinal];
+                live++;
+            }
+        }
+
+        postings.clear();
+        ordinals.clear();
+        tombstones.clear();
+        productIds = new long[Math.max(INITIAL_CAPACITY, live + (live >> 1))];
+        gramCounts = new short[productIds.length];
+        names = new String[productIds.length];
+        size = 0;
+        for (int k = 0; k < live; k++) {
+            append(liveIds[k], liveNames[k], trigrams(liveNames[k]));
+        }
+    }
+
+    /**
+     * Distinct trigrams of the normalized words, each packed into a long as three 16-bit chars.
+     */
+    static long[] trigrams(String text) {
+        long[] grams = new long[16];
+        int count = 0;
+        for (String word : TextAnalyzer.tokenize(text)) {
+            String padded = "$" + word + "$";
+            for (int i = 0; i + 3 <= padded.length(); i++) {
+                long gram = ((long) padded.charAt(i) << 32) | ((long) padded.charAt(i + 1) << 16) | padded.charAt(i + 2);
+                if (count == grams.length) {
+                    grams = Arrays.copyOf(grams, count * 2);
+                }
+                grams[count++] = gram;
+            }
+        }
+        long[] distinct = Arrays.copyOf(grams, count);
+        Arrays.sort(distinct);
+        int unique = 0;
+        for (int i = 0; i < distinct.length; i++) {
+            if (i == 0 || distinct[i] != distinct[i - 1]) {
+                distinct[unique++] = distinct[i];
+            }
+        }
+        return Arrays.copyOf(distinct, unique);
+    }
+
+    private record Match(int ordinal, double coverage, double similarity) {
+    }
+
+    /**
+     * Per-query counters, one slot per ordinal. Reset entry by entry after each query, never reallocated
+     * unless the index grew.
+     */
+    private static final class Scratch {
+
+        private int[] counts = new int[0];
+        private int[] touched = new int[0];
+
+        void ensureCapacity(int capacity) {
+            if (counts.length < capacity) {
+                counts = new int[capacity + (capacity >> 2)];
+                touched = new int[counts.length];
+            }
+        }
+    }
+
+    private static final class Posting {
+
+        private int[] ordinals = new int[4];
+        private int size;
+
+        void add(int ordinal) {
+            if (size == ordinals.length) {
+                ordinals = Arrays.copyOf(ordinals, size * 2);
+            }
+            ordinals[size++] = ordinal;
+        }
+
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.ecommerce.util;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Turns product text and search input into index terms. Indexing and querying must go through the
+ * same analyzer, otherwise a term written one way can never be found the other way.
+ * <p>
+ * Arabic text is folded the way users type it: diacritics (tashkeel) and tatweel are dropped, the
+ * alef/hamza variants collapse to a bare alef, alef maqsura becomes yaa, taa marbuta becomes haa,
+ * and Arabic-Indic digits become ASCII digits. Latin accents are dropped as well.
+ */
+public final class TextAnalyzer {
+
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private TextAnalyzer() {
+        // Utility class
+    }
+
+    public static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null || text.isBlank()) {
+            return tokens;
+        }
+        for (String token : SEPARATORS.split(normalize(text))) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    /**
+     * The normalized form stored in {@code products.search_key}: terms joined by single spaces, so a
+     * {@code LIKE 'key%'} lookup can use the column index.
+     */
+    public static String searchKey(String text) {
+        return String.join(" ", tokenize(text));
+    }
+
+    public static String normalize(String text) {
+        // NFKD splits hamza and madda off the alef/waw/yaa they sit on and unfolds presentation forms
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFKD);
+        StringBuilder normalized = new StringBuilder(decomposed.length());
+        for (int i = 0; i < decomposed.length(); i++) {
+            char c = decomposed.charAt(i);
+            if (Character.getType(c) == Character.NON_SPACING_MARK || c == '\u0640') { // tatweel
+                continue;
+            }
+            normalized.append(fold(c));
+        }
+        return normalized.toString().toLowerCase(Locale.ROOT);
+    }
+
+    private static char fold(char c) {
+        return switch (c) {
+            case 'آ', 'أ', 'إ', 'ٱ' -> 'ا';
+            case 'ى' -> 'ي';
+            case 'ة' -> 'ه';
+            case 'ؤ' -> 'و';
+            case 'ئ' -> 'ي';
+            default -> Character.isDigit(c) ? (char) ('0' + Character.digit(c, 10)) : c;
+        };
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.ecommerce.config;
+
+import com.example.ecommerce.model.entity.TokenEpoch;
+import com.example.ecommerce.repository.TokenEpochRepository;
+import org.junit.jupiter.api.Test;
+
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class TokenEpochRegistryTests {
+
+    private static final String EMAIL = "user@example.com";
+    private static final long TOKEN_LIFETIME_MS = 3_600_000;
+
+    private final TokenEpochRepository repository = mock(TokenEpochRepository.class);
+    private final TokenEpochRegistry registry = new TokenEpochRegistry(repository, TOKEN_LIFETIME_MS);
+
+    @Test
+    void rejectsTokensIssuedBeforeTheEpochSecondOnly() {
+        long epoch = (System.currentTimeMillis() / 1000 + 1) * 1000;
+        when(repository.findAll()).thenReturn(List.of(new TokenEpoch(EMAIL, epoch)));
+        registry.refresh();
+
+        assertTrue(registry.isRevoked(EMAIL, iat(epoch - 1)));
+        assertFalse(registry.isRevoked(EMAIL, iat(epoch)));
+        assertFalse(registry.isRevoked(EMAIL, iat(epoch + 1)));
+        assertTrue(registry.isRevoked(EMAIL, null));
+    }
+
+    @Test
+    void rejectsEveryTokenIssuedUpToTheRevocation() {
+        long before = System.currentTimeMillis();
+
+        registry.revokeAll(EMAIL);
+
+        assertTrue(registry.isRevoked(EMAIL, iat(before - 60_000)));
+        assertTrue(registry.isRevoked(EMAIL, iat(before)));
+        assertTrue(registry.isRevoked(EMAIL, iat(System.currentTimeMillis())));
+    }
+
+    @Test
+    void issuesTokensInTheRevocationSecondAtTheEpoch() {
+        registry.revokeAll(EMAIL);
+
+        Date issuedAt = registry.issuedAtFor(EMAIL);
+
+        assertFalse(registry.isRevoked(EMAIL, iat(issuedAt.getTime())));
+    }
+
+    @Test
+    void leavesUsersWithoutAnEpochAlone() {
+        long before = System.currentTimeMillis();
+
+        assertFalse(registry.isRevoked(EMAIL, iat(0)));
+        assertTrue(registry.issuedAtFor(EMAIL).getTime() >= before);
+    }
+
+    /**
+     * The iat claim keeps whole seconds.
+     */
+    private static Date iat(long millis) {
+        return new Date(millis / 1000 * 1000);
+    }
+}
@@ -0,0 +1,114 @@
+package com.example.ecommerce.repository;
+
+import com.example.ecommerce.mapper.CartMapper;
+import com.example.ecommerce.model.dto.response.CartResponse;
+import com.example.ecommerce.model.entity.Cart;
+import com.example.ecommerce.model.entity.CartItem;
+import com.example.ecommerce.model.entity.Category;
+import com.example.ecommerce.model.entity.Product;
+import com.example.ecommerce.model.entity.User;
+import com.example.ecommerce.model.enums.Role;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import java.math.BigDecimal;
+import java.util.HashSet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Statements needed to read an N-item cart and map it to a response: the plain lookup lazy-loads the
+ * items, then every product and its category (2N + 2), the fetch-join query reads it all in one.
+ */
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:cart-query-count;MODE=MySQL;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.show-sql=false",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class CartRepositoryQueryCountTests {
+
+    private static final int ITEMS = 20;
+    private static final String EMAIL = "buyer@example.com";
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private CartRepository cartRepository;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        User user = new User();
+        user.setFullName("Buyer");
+        user.setEmail(EMAIL);
+        user.setPassword("not-a-hash");
+        user.setRole(Role.USER);
+        entityManager.persist(user);
+
+        Cart cart = new Cart();
+        cart.setUser(user);
+        cart.setCartItems(new HashSet<>());
+        entityManager.persist(cart);
+
+        for (int i = 0; i < ITEMS; i++) {
+            Category category = new Category();
+            category.setName("Category " + i);
+            entityManager.persist(category);
+
+            Product product = new Product();
+            product.setName("Product " + i);
+            product.setPrice(BigDecimal.valueOf(10 + i));
+            product.setStockQuantity(100);
+            product.setCategory(category);
+            entityManager.persist(product);
+
+            CartItem item = new CartItem();
+            item.setCart(cart);
+            item.setProduct(product);
+            item.setQuantity(1 + i % 3);
+            cart.getCartItems().add(item);
+            entityManager.persist(item);
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void plainLookupLoadsItemsProductsAndCategoriesOneByOne() {
+        Cart cart = cartRepository.findByUser_Email(EMAIL).orElseThrow();
+        CartResponse response = CartMapper.toCartResponse(cart);
+
+        assertEquals(ITEMS, response.getItems().size());
+        assertEquals(2L * ITEMS + 2, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void fetchJoinReadsTheWholeCartInOneStatement() {
+        Cart cart = cartRepository.findWithItemsByUserEmail(EMAIL).orElseThrow();
+        CartResponse response = CartMapper.toCartResponse(cart);
+
+        assertEquals(ITEMS, response.getItems().size());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+}
@@ -0,0 +1,103 @@
+package com.example.ecommerce.service.cart;
+
+import com.example.ecommerce.exception.excptions.BadRequestException;
+import com.example.ecommerce.model.dto.request.CartBatchRequest;
+import com.example.ecommerce.model.enums.CartOperationType;
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class CartOperationsTests {
+
+    @Test
+    void addsToExistingLinesAndAppendsNewOnes() {
+        Map<Long, Integer> result = CartOperations.apply(cart(1L, 2, 2L, 1), List.of(
+                op(CartOperationType.ADD, 3L, 4),
+                op(CartOperationType.ADD, 1L, 3)));
+
+        assertEquals(List.of(1L, 2L, 3L), List.copyOf(result.keySet()));
+        assertEquals(cart(1L, 5, 2L, 1, 3L, 4), result);
+    }
+
+    @Test
+    void setReplacesTheQuantityAndZeroRemovesTheLine() {
+        Map<Long, Integer> result = CartOperations.apply(cart(1L, 2, 2L, 1), List.of(
+                op(CartOperationType.SET, 1L, 7),
+                op(CartOperationType.SET, 2L, 0),
+                op(CartOperationType.SET, 3L, 0)));
+
+        assertEquals(cart(1L, 7), result);
+    }
+
+    @Test
+    void removeIsIdempotent() {
+        List<CartBatchRequest.Operation> operations = List.of(
+                op(CartOperationType.REMOVE, 1L, null),
+                op(CartOperationType.REMOVE, 1L, null),
+                op(CartOperationType.REMOVE, 9L, null));
+
+        Map<Long, Integer> once = CartOperations.apply(cart(1L, 2, 2L, 1), operations);
+
+        assertEquals(cart(2L, 1), once);
+        assertEquals(once, CartOperations.apply(once, operations));
+    }
+
+    @Test
+    void appliesOperationsInOrder() {
+        Map<Long, Integer> result = CartOperations.apply(cart(), List.of(
+                op(CartOperationType.ADD, 1L, 2),
+                op(CartOperationType.REMOVE, 1L, null),
+                op(CartOperationType.ADD, 1L, 1),
+                op(CartOperationType.SET, 1L, 4),
+                op(CartOperationType.ADD, 1L, 1)));
+
+        assertEquals(cart(1L, 5), result);
+    }
+
+    @Test
+    void leavesTheCurrentQuantitiesUntouched() {
+        Map<Long, Integer> current = cart(1L, 2);
+
+        CartOperations.apply(current, List.of(op(CartOperationType.ADD, 1L, 1), op(CartOperationType.ADD, 2L, 1)));
+
+        assertEquals(cart(1L, 2), current);
+    }
+
+    @Test
+    void rejectsMissingOrTooSmallQuantities() {
+        Map<Long, Integer> current = cart(1L, 2);
+
+        assertThrows(BadRequestException.class,
+                () -> CartOperations.apply(current, List.of(op(CartOperationType.ADD, 1L, 0))));
+        assertThrows(BadRequestException.class,
+                () -> CartOperations.apply(current, List.of(op(CartOperationType.ADD, 1L, null))));
+        assertThrows(BadRequestException.class,
+                () -> CartOperations.apply(current, List.of(op(CartOperationType.SET, 1L, -1))));
+        assertThrows(BadRequestException.class,
+                () -> CartOperations.apply(current, List.of(op(CartOperationType.SET, 1L, null))));
+    }
+
+    private static CartBatchRequest.Operation op(CartOperationType type, Long productId, Integer quantity) {
+        CartBatchRequest.Operation operation = new CartBatchRequest.Operation();
+        operation.setOp(type);
+        operation.setProductId(productId);
+        operation.setQuantity(quantity);
+        return operation;
+    }
+
+    /**
+     * Product id and quantity pairs, in order.
+     */
+    private static Map<Long, Integer> cart(Object... pairs) {
+        Map<Long, Integer> quantities = new LinkedHashMap<>();
+        for (int i = 0; i < pairs.length; i += 2) {
+            quantities.put((Long) pairs[i], (Integer) pairs[i + 1]);
+        }
+        return quantities;
+    }
+}
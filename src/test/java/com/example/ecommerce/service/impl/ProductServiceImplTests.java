@@ -0,0 +1,109 @@
+package com.example.ecommerce.service.impl;
+
+import com.example.ecommerce.model.dto.request.ProductBulkUpdateRequest;
+import com.example.ecommerce.model.dto.response.ProductBulkUpdateResponse;
+import com.example.ecommerce.model.enums.BulkUpdateStatus;
+import com.example.ecommerce.model.projection.ProductStockState;
+import com.example.ecommerce.repository.CategoryRepository;
+import com.example.ecommerce.repository.ProductRepository;
+import com.example.ecommerce.service.cache.CatalogCacheEvictor;
+import com.example.ecommerce.service.export.StreamingExporter;
+import com.example.ecommerce.service.inventory.LowStockRegistry;
+import com.example.ecommerce.service.inventory.LowStockStream;
+import com.example.ecommerce.service.inventory.StockLedger;
+import com.example.ecommerce.service.search.PopularityIndex;
+import com.example.ecommerce.service.search.ProductSearchIndex;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class ProductServiceImplTests {
+
+    private static final long ID = 7L;
+
+    private final ProductRepository productRepository = mock(ProductRepository.class);
+    private final CatalogCacheEvictor cacheEvictor = mock(CatalogCacheEvictor.class);
+    private final ProductSearchIndex searchIndex = mock(ProductSearchIndex.class);
+    private final LowStockRegistry lowStockRegistry = mock(LowStockRegistry.class);
+    private final ProductServiceImpl productService = new ProductServiceImpl(productRepository,
+            mock(CategoryRepository.class), cacheEvictor, searchIndex, mock(PopularityIndex.class), lowStockRegistry,
+            mock(LowStockStream.class), mock(StockLedger.class), mock(StreamingExporter.class));
+
+    @Test
+    void reportsAnAppliedRowAsUpdatedAndPublishesIt() {
+        ProductBulkUpdateResponse response = bulkUpdate(item(null, -2), 1, state(3, 5L));
+
+        assertEquals(BulkUpdateStatus.UPDATED, response.getResults().get(0).status());
+        assertEquals(1, response.getUpdated());
+        assertEquals(0, response.getConflicts());
+        verify(cacheEvictor).evictProduct(ID, "Phone");
+        verify(searchIndex).updatePriceAndStock(ID, BigDecimal.TEN, 3);
+        verify(lowStockRegistry).onStockChanged(ID, "Phone", 3, null);
+    }
+
+    @Test
+    void reportsAMissingProductAsNotFound() {
+        ProductBulkUpdateResponse response = bulkUpdate(item(null, -2), 0, null);
+
+        ProductBulkUpdateResponse.Result result = response.getResults().get(0);
+        assertEquals(BulkUpdateStatus.NOT_FOUND, result.status());
+        assertNull(result.version());
+        assertEquals(1, response.getConflicts());
+        verifyNoInteractions(searchIndex);
+    }
+
+    @Test
+    void reportsAnotherVersionAsAConflict() {
+        ProductBulkUpdateResponse response = bulkUpdate(item(4L, -2), 0, state(3, 5L));
+
+        ProductBulkUpdateResponse.Result result = response.getResults().get(0);
+        assertEquals(BulkUpdateStatus.VERSION_CONFLICT, result.status());
+        assertEquals(5L, result.version().longValue());
+    }
+
+    @Test
+    void reportsADeltaBelowZeroAsInsufficientStock() {
+        ProductBulkUpdateResponse response = bulkUpdate(item(5L, -4), 0, state(3, 5L));
+
+        ProductBulkUpdateResponse.Result result = response.getResults().get(0);
+        assertEquals(BulkUpdateStatus.INSUFFICIENT_STOCK, result.status());
+        assertEquals(3, result.stockQuantity().intValue());
+    }
+
+    @Test
+    void reportsAnUnappliedRowWithEnoughStockAsAConcurrentUpdate() {
+        ProductBulkUpdateResponse response = bulkUpdate(item(null, -3), 0, state(3, 5L));
+
+        assertEquals(BulkUpdateStatus.CONCURRENT_UPDATE, response.getResults().get(0).status());
+        verifyNoInteractions(cacheEvictor);
+    }
+
+    private ProductBulkUpdateResponse bulkUpdate(ProductBulkUpdateRequest.Item item, int count, ProductStockState state) {
+        when(productRepository.bulkUpdatePriceAndStock(any())).thenReturn(new int[]{count});
+        when(productRepository.findStockStates(any())).thenReturn(state == null ? List.of() : List.of(state));
+        ProductBulkUpdateRequest request = new ProductBulkUpdateRequest();
+        request.setItems(List.of(item));
+        return productService.bulkUpdate(request);
+    }
+
+    private static ProductBulkUpdateRequest.Item item(Long version, int stockDelta) {
+        ProductBulkUpdateRequest.Item item = new ProductBulkUpdateRequest.Item();
+        item.setId(ID);
+        item.setVersion(version);
+        item.setStockDelta(stockDelta);
+        return item;
+    }
+
+    private static ProductStockState state(int stockQuantity, Long version) {
+        return new ProductStockState(ID, "Phone", BigDecimal.TEN, stockQuantity, null, version);
+    }
+}
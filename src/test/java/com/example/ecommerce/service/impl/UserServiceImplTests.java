@@ -0,0 +1,89 @@
+package com.example.ecommerce.service.impl;
+
+import com.example.ecommerce.config.TokenEpochRegistry;
+import com.example.ecommerce.model.entity.RefreshToken;
+import com.example.ecommerce.model.entity.User;
+import com.example.ecommerce.model.enums.Role;
+import com.example.ecommerce.repository.RefreshTokenRepository;
+import com.example.ecommerce.repository.UserRepository;
+import com.example.ecommerce.service.UserService;
+import com.example.ecommerce.service.export.StreamingExporter;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Runs outside a test transaction, so {@code deleteUser} has to bring its own: its bulk token delete
+ * needs one, and the tokens and the user must be gone together.
+ */
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:user-service;MODE=MySQL;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.show-sql=false"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import(UserServiceImpl.class)
+class UserServiceImplTests {
+
+    private static final String EMAIL = "leaving@example.com";
+
+    @MockitoBean
+    private TokenEpochRegistry tokenEpochRegistry;
+
+    @MockitoBean
+    private StreamingExporter exporter;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RefreshTokenRepository refreshTokenRepository;
+
+    @Test
+    void deletesAUserTogetherWithTheirRefreshTokens() {
+        User user = new User();
+        user.setFullName("Leaving");
+        user.setEmail(EMAIL);
+        user.setPassword("not-a-hash");
+        user.setRole(Role.USER);
+        user = userRepository.save(user);
+        String familyId = UUID.randomUUID().toString();
+        refreshTokenRepository.save(refreshToken(user, familyId, "a".repeat(64)));
+        refreshTokenRepository.save(refreshToken(user, familyId, "b".repeat(64)));
+
+        userService.deleteUser(EMAIL);
+
+        assertTrue(userRepository.findByEmail(EMAIL).isEmpty());
+        assertEquals(0, refreshTokenRepository.count());
+        verify(tokenEpochRegistry).revokeAll(EMAIL);
+    }
+
+    private static RefreshToken refreshToken(User user, String familyId, String tokenHash) {
+        RefreshToken token = new RefreshToken();
+        token.setUser(user);
+        token.setFamilyId(familyId);
+        token.setTokenHash(tokenHash);
+        token.setExpiresAt(LocalDateTime.now().plusDays(1));
+        return token;
+    }
+}
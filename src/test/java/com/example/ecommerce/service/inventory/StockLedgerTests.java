@@ -0,0 +1,131 @@
+package com.example.ecommerce.service.inventory;
+
+import com.example.ecommerce.config.CacheNames;
+import com.example.ecommerce.exception.excptions.InsufficientStockException;
+import com.example.ecommerce.exception.excptions.ResourceNotFoundException;
+import com.example.ecommerce.model.dto.response.LowStockItemResponse;
+import com.example.ecommerce.model.projection.ProductStockState;
+import com.example.ecommerce.repository.ProductRepository;
+import com.example.ecommerce.service.cache.CatalogCacheEvictor;
+import com.example.ecommerce.service.search.ProductSearchIndex;
+import com.example.ecommerce.util.LongIntHashMap;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.AdditionalMatchers.aryEq;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class StockLedgerTests {
+
+    private final ProductRepository productRepository = mock(ProductRepository.class);
+    private final ProductSearchIndex searchIndex = mock(ProductSearchIndex.class);
+    private final ConcurrentMapCacheManager cacheManager =
+            new ConcurrentMapCacheManager(CacheNames.PRODUCTS, CacheNames.PRODUCTS_BY_NAME);
+    private final LowStockRegistry lowStockRegistry =
+            new LowStockRegistry(productRepository, mock(ApplicationEventPublisher.class), 10);
+    private final StockLedger ledger = new StockLedger(
+            productRepository, new CatalogCacheEvictor(cacheManager), searchIndex, lowStockRegistry);
+
+    @AfterEach
+    void clearTransactionSynchronization() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void takesStockInProductIdOrder() {
+        when(productRepository.decrementStock(any(), any())).thenReturn(new int[]{1, 1, 1});
+        when(productRepository.findStockStates(any())).thenReturn(List.of(
+                state(10L, "Phone", 8), state(20L, "Case", 7), state(30L, "Charger", 9)));
+
+        ledger.take(quantities(30L, 1, 10L, 2, 20L, 3));
+
+        verify(productRepository).decrementStock(aryEq(new long[]{10, 20, 30}), aryEq(new int[]{2, 3, 1}));
+    }
+
+    @Test
+    void reportsTheShortProductWithTheRequestedAndAvailableStock() {
+        when(productRepository.decrementStock(any(), any())).thenReturn(new int[]{1, 0});
+        when(productRepository.findStockStates(any())).thenReturn(List.of(
+                state(10L, "Phone", 8), state(20L, "Case", 3)));
+
+        InsufficientStockException e = assertThrows(InsufficientStockException.class,
+                () -> ledger.take(quantities(10L, 2, 20L, 5)));
+
+        assertEquals("Insufficient stock for product 'Case'. Requested: 5, Available: 3", e.getMessage());
+        verifyNoInteractions(searchIndex);
+    }
+
+    @Test
+    void reportsAMissingProductAsNotFoundWhenTaking() {
+        when(productRepository.decrementStock(any(), any())).thenReturn(new int[]{1, 0});
+        when(productRepository.findStockStates(any())).thenReturn(List.of(state(10L, "Phone", 8)));
+
+        assertThrows(ResourceNotFoundException.class, () -> ledger.take(quantities(10L, 2, 20L, 1)));
+        verifyNoInteractions(searchIndex);
+    }
+
+    @Test
+    void reportsAMissingProductAsNotFoundWhenRestoring() {
+        when(productRepository.incrementStock(any(), any())).thenReturn(new int[]{1, 0});
+
+        assertThrows(ResourceNotFoundException.class, () -> ledger.restore(quantities(10L, 2, 20L, 1)));
+        verify(productRepository).incrementStock(aryEq(new long[]{10, 20}), aryEq(new int[]{2, 1}));
+        verify(productRepository, never()).findStockStates(any());
+        verifyNoInteractions(searchIndex);
+    }
+
+    @Test
+    void publishesTheNewStockOnlyAfterCommit() {
+        Cache products = cacheManager.getCache(CacheNames.PRODUCTS);
+        products.put(10L, "cached");
+        when(productRepository.decrementStock(any(), any())).thenReturn(new int[]{1});
+        when(productRepository.findStockStates(any())).thenReturn(List.of(state(10L, "Phone", 4)));
+        TransactionSynchronizationManager.initSynchronization();
+
+        ledger.take(quantities(10L, 2));
+
+        assertNotNull(products.get(10L));
+        assertTrue(lowStockRegistry.list().isEmpty());
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+
+        assertNull(products.get(10L));
+        verify(searchIndex).updateStock(10L, 4);
+        assertEquals(List.of(new LowStockItemResponse(10L, "Phone", 4, 10)), lowStockRegistry.list());
+    }
+
+    private static ProductStockState state(Long id, String name, int stockQuantity) {
+        return new ProductStockState(id, name, BigDecimal.TEN, stockQuantity, null, 0L);
+    }
+
+    /**
+     * Product id and quantity pairs.
+     */
+    private static LongIntHashMap quantities(Object... pairs) {
+        LongIntHashMap quantities = new LongIntHashMap();
+        for (int i = 0; i < pairs.length; i += 2) {
+            quantities.put((Long) pairs[i], (Integer) pairs[i + 1]);
+        }
+        return quantities;
+    }
+}
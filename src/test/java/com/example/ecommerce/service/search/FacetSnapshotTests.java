@@ -0,0 +1,139 @@
+package com.example.ecommerce.service.search;
+
+import com.example.ecommerce.service.search.FacetSnapshot.CategoryCount;
+import com.example.ecommerce.service.search.FacetSnapshot.Query;
+import com.example.ecommerce.service.search.FacetSnapshot.Result;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class FacetSnapshotTests {
+
+    private static final long PHONES = 10;
+    private static final long LAPTOPS = 20;
+    // buckets [0, 200), [200, 500) and 500 and up
+    private static final long[] PRICE_EDGES = {0, 20_000, 50_000};
+
+    private FacetSnapshot snapshot;
+
+    /**
+     * Phones: 1 (100, in stock), 2 (300, out of stock), 5 (50, in stock).
+     * Laptops: 3 (1000, in stock), 4 (250, in stock).
+     */
+    @BeforeEach
+    void setUp() {
+        FacetSnapshot.Builder builder = new FacetSnapshot.Builder();
+        builder.category(PHONES, "Phones");
+        builder.add(4, LAPTOPS, new BigDecimal("250.00"), 1);
+        builder.add(1, PHONES, new BigDecimal("100.00"), 5);
+        builder.add(5, PHONES, new BigDecimal("50.00"), 3);
+        builder.add(3, LAPTOPS, new BigDecimal("1000.00"), 2);
+        builder.add(2, PHONES, new BigDecimal("300.00"), 0);
+        // a category seen on a product first gets its name later
+        builder.category(LAPTOPS, "Laptops");
+        snapshot = builder.build(1);
+    }
+
+    @Test
+    void countsTheWholeCatalogWithoutFilters() {
+        Result result = scan(new Query(null, null, null, false), 10);
+
+        assertEquals(List.of(1L, 2L, 3L, 4L, 5L), result.productIds());
+        assertEquals(5, result.total());
+        assertEquals(List.of(new CategoryCount(PHONES, "Phones", 3), new CategoryCount(LAPTOPS, "Laptops", 2)),
+                result.categories());
+        assertArrayEquals(new long[]{2, 2, 1}, result.priceCounts());
+        assertEquals(4, result.inStock());
+        assertEquals(1, result.outOfStock());
+    }
+
+    @Test
+    void countsEachFacetWithoutItsOwnFilter() {
+        Result result = scan(new Query("phones", null, null, false), 10);
+
+        assertEquals(List.of(1L, 2L, 5L), result.productIds());
+        assertEquals(3, result.total());
+        // the category facet ignores the category filter
+        assertEquals(List.of(new CategoryCount(PHONES, "Phones", 3), new CategoryCount(LAPTOPS, "Laptops", 2)),
+                result.categories());
+        assertArrayEquals(new long[]{2, 1, 0}, result.priceCounts());
+        assertEquals(2, result.inStock());
+        assertEquals(1, result.outOfStock());
+    }
+
+    @Test
+    void appliesTheOtherFiltersToEveryFacet() {
+        Result result = scan(new Query("Phones", null, new BigDecimal("200"), true), 10);
+
+        assertEquals(List.of(1L, 5L), result.productIds());
+        assertEquals(2, result.total());
+        // price and stock filters apply: both laptops cost more than 200
+        assertEquals(List.of(new CategoryCount(PHONES, "Phones", 2)), result.categories());
+        // category and stock filters apply: product 2 is out of stock
+        assertArrayEquals(new long[]{2, 0, 0}, result.priceCounts());
+        // category and price filters apply, stock does not
+        assertEquals(2, result.inStock());
+        assertEquals(0, result.outOfStock());
+    }
+
+    @Test
+    void matchesNothingForAnUnknownCategoryButStillCountsCategories() {
+        Result result = scan(new Query("Tablets", null, null, false), 10);
+
+        assertEquals(List.of(), result.productIds());
+        assertEquals(0, result.total());
+        assertEquals(List.of(new CategoryCount(PHONES, "Phones", 3), new CategoryCount(LAPTOPS, "Laptops", 2)),
+                result.categories());
+        assertArrayEquals(new long[]{0, 0, 0}, result.priceCounts());
+    }
+
+    @Test
+    void pagesTheScanInIdOrderButCountsEveryMatch() {
+        Result result = scan(new Query(null, new BigDecimal("100"), null, false), 2);
+
+        assertEquals(List.of(1L, 2L), result.productIds());
+        assertEquals(4, result.total());
+    }
+
+    @Test
+    void ranksCandidateRowsByScoreAndTheLowerIdOnTies() {
+        int[] rows = {snapshot.rowOf(4), snapshot.rowOf(1), snapshot.rowOf(3), snapshot.rowOf(2)};
+        double[] scores = {0.5, 0.9, 0.5, 0.1};
+
+        Result result = snapshot.count(rows, scores, rows.length, new Query(null, null, null, false), PRICE_EDGES, 2);
+
+        assertEquals(List.of(1L, 3L), result.productIds());
+        assertEquals(4, result.total());
+        // facets count the candidates only
+        assertEquals(List.of(new CategoryCount(PHONES, "Phones", 2), new CategoryCount(LAPTOPS, "Laptops", 2)),
+                result.categories());
+    }
+
+    @Test
+    void countsPatchedStock() {
+        snapshot.updateStock(2, 7);
+        snapshot.updateStock(99, 1);
+
+        Result result = scan(new Query(null, null, null, true), 10);
+
+        assertEquals(5, result.total());
+        assertEquals(5, result.inStock());
+        assertEquals(0, result.outOfStock());
+    }
+
+    @Test
+    void roundsPricesToCents() {
+        assertEquals(2000, FacetSnapshot.toCents(new BigDecimal("19.995")));
+        assertEquals(1999, FacetSnapshot.toCents(new BigDecimal("19.994")));
+        assertEquals(-1, snapshot.rowOf(99));
+    }
+
+    private Result scan(Query query, int limit) {
+        return snapshot.count(null, null, 0, query, PRICE_EDGES, limit);
+    }
+}
@@ -0,0 +1,176 @@
+package com.example.ecommerce.service.search;
+
+import com.example.ecommerce.service.search.SuggestionIndex.Suggestion;
+import com.example.ecommerce.service.search.SuggestionIndex.Type;
+import com.example.ecommerce.util.TextAnalyzer;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class SuggestionIndexTests {
+
+    @Test
+    void completesFromTheStartOfAnyWord() {
+        SuggestionIndex index = new SuggestionIndex(5);
+        index.put(Type.PRODUCT, 1L, "Samsung Galaxy S24", 1);
+
+        assertEquals(List.of(1L), ids(index.suggest("sam", 5)));
+        assertEquals(List.of(1L), ids(index.suggest("Gal", 5)));
+        assertEquals(List.of(1L), ids(index.suggest("galaxy s2", 5)));
+        assertEquals(List.of(1L), ids(index.suggest("s24", 5)));
+        assertEquals(List.of(), ids(index.suggest("alaxy", 5)));
+        assertEquals(List.of(), ids(index.suggest("galaxy s25", 5)));
+    }
+
+    @Test
+    void ranksByScoreThenShorterName() {
+        SuggestionIndex index = new SuggestionIndex(5);
+        index.put(Type.PRODUCT, 1L, "Galaxy S24 Ultra", 2);
+        index.put(Type.PRODUCT, 2L, "Galaxy S24", 2);
+        index.put(Type.PRODUCT, 3L, "Galaxy Tab", 5);
+
+        assertEquals(List.of(3L, 2L, 1L), ids(index.suggest("galaxy", 5)));
+        assertEquals(List.of(3L, 2L), ids(index.suggest("galaxy", 2)));
+    }
+
+    @Test
+    void splitsEdgesWhereKeysDiverge() {
+        SuggestionIndex index = new SuggestionIndex(5);
+        index.put(Type.PRODUCT, 1L, "galaxy", 3);
+        index.put(Type.PRODUCT, 2L, "gamepad", 2);
+        // ends in the middle of the "galaxy" edge
+        index.put(Type.PRODUCT, 3L, "gala", 1);
+
+        assertEquals(List.of(1L, 2L, 3L), ids(index.suggest("ga", 5)));
+        assertEquals(List.of(1L, 3L), ids(index.suggest("gal", 5)));
+        assertEquals(List.of(1L, 3L), ids(index.suggest("gala", 5)));
+        assertEquals(List.of(1L), ids(index.suggest("galax", 5)));
+        assertEquals(List.of(2L), ids(index.suggest("gam", 5)));
+    }
+
+    @Test
+    void refillsTheTopListFromTheSubtreeAfterADelete() {
+        SuggestionIndex index = new SuggestionIndex(2);
+        index.put(Type.PRODUCT, 1L, "galaxy", 3);
+        index.put(Type.PRODUCT, 2L, "gamer", 2);
+        index.put(Type.PRODUCT, 3L, "gate", 1);
+        assertEquals(List.of(1L, 2L), ids(index.suggest("ga", 5)));
+
+        index.remove(Type.PRODUCT, 1L);
+
+        assertEquals(List.of(2L, 3L), ids(index.suggest("ga", 5)));
+        assertEquals(List.of(), ids(index.suggest("gal", 5)));
+    }
+
+    @Test
+    void acceptsNewKeysAfterBranchesArePruned() {
+        SuggestionIndex index = new SuggestionIndex(5);
+        index.put(Type.PRODUCT, 1L, "galaxy", 1);
+        index.put(Type.PRODUCT, 2L, "gamer", 1);
+        index.remove(Type.PRODUCT, 1L);
+        index.remove(Type.PRODUCT, 2L);
+        assertEquals(List.of(), ids(index.suggest("ga", 5)));
+
+        index.put(Type.PRODUCT, 3L, "gadget", 1);
+        index.put(Type.PRODUCT, 4L, "galaxy", 1);
+
+        assertEquals(List.of(3L, 4L), ids(index.suggest("ga", 5)));
+        assertEquals(List.of(4L), ids(index.suggest("gal", 5)));
+    }
+
+    @Test
+    void reranksOnScoreUpdateAndIgnoresUnknownEntries() {
+        SuggestionIndex index = new SuggestionIndex(5);
+        index.put(Type.PRODUCT, 1L, "galaxy", 1);
+        index.put(Type.PRODUCT, 2L, "gamer", 2);
+
+        index.updateScore(Type.PRODUCT, 1L, 3);
+        index.updateScore(Type.PRODUCT, 9L, 10);
+
+        assertEquals(List.of(1L, 2L), ids(index.suggest("ga", 5)));
+    }
+
+    @Test
+    void replacesTheNameOnPut() {
+        SuggestionIndex index = new SuggestionIndex(5);
+        index.put(Type.PRODUCT, 1L, "galaxy", 1);
+        index.put(Type.PRODUCT, 1L, "iphone", 1);
+
+        assertEquals(List.of(), ids(index.suggest("gal", 5)));
+        assertEquals(List.of(1L), ids(index.suggest("iph", 5)));
+    }
+
+    @Test
+    void keepsProductsAndCategoriesWithTheSameIdApart() {
+        SuggestionIndex index = new SuggestionIndex(5);
+        index.put(Type.PRODUCT, 1L, "phone case", 1);
+        index.put(Type.CATEGORY, 1L, "phones", 2);
+
+        index.remove(Type.PRODUCT, 1L);
+
+        assertEquals(List.of(new Suggestion(Type.CATEGORY, 1L, "phones", 2)), index.suggest("ph", 5));
+    }
+
+    @Test
+    void matchesAFullScanUnderRandomUpdates() {
+        String[] words = {"ga", "gal", "galaxy", "gam", "game", "s", "s2", "s24", "tab", "ta"};
+        String[] prefixes = {"g", "ga", "gal", "gala", "galaxy", "galaxy s", "gam", "game", "s", "s2", "t", "tab", "x"};
+        int k = 3;
+        SuggestionIndex index = new SuggestionIndex(k);
+        Map<String, Suggestion> expected = new HashMap<>();
+        Random random = new Random(42);
+
+        for (int step = 0; step < 5000; step++) {
+            Type type = random.nextBoolean() ? Type.PRODUCT : Type.CATEGORY;
+            Long id = (long) random.nextInt(20);
+            String key = type + ":" + id;
+            int action = random.nextInt(10);
+            if (action < 6) {
+                StringBuilder name = new StringBuilder(words[random.nextInt(words.length)]);
+                for (int i = random.nextInt(3); i > 0; i--) {
+                    name.append(' ').append(words[random.nextInt(words.length)]);
+                }
+                double score = random.nextInt(4);
+                index.put(type, id, name.toString(), score);
+                expected.put(key, new Suggestion(type, id, name.toString(), score));
+            } else if (action < 8) {
+                index.remove(type, id);
+                expected.remove(key);
+            } else {
+                double score = random.nextInt(4);
+                index.updateScore(type, id, score);
+                expected.computeIfPresent(key, (ignored, current) -> new Suggestion(type, id, current.name(), score));
+            }
+
+            for (String prefix : prefixes) {
+                assertEquals(scan(expected, prefix, k), index.suggest(prefix, k), "step " + step + ", prefix " + prefix);
+            }
+        }
+    }
+
+    private static List<Suggestion> scan(Map<String, Suggestion> entries, String prefix, int limit) {
+        String key = TextAnalyzer.searchKey(prefix);
+        List<Suggestion> matches = new ArrayList<>();
+        for (Suggestion suggestion : entries.values()) {
+            List<String> words = TextAnalyzer.tokenize(suggestion.name());
+            for (int i = 0; i < words.size(); i++) {
+                if (String.join(" ", words.subList(i, words.size())).startsWith(key)) {
+                    matches.add(suggestion);
+                    break;
+                }
+            }
+        }
+        matches.sort(SuggestionIndex.RANKING);
+        return matches.subList(0, Math.min(limit, matches.size()));
+    }
+
+    private static List<Long> ids(List<Suggestion> suggestions) {
+        return suggestions.stream().map(Suggestion::id).toList();
+    }
+}
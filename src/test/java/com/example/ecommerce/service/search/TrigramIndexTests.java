@@ -0,0 +1,115 @@
+package com.example.ecommerce.service.search;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class TrigramIndexTests {
+
+    private TrigramIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new TrigramIndex(2);
+    }
+
+    @Test
+    void findsAMisspelledName() {
+        index.put(1L, "Samsung Galaxy");
+        index.put(2L, "Apple iPhone");
+
+        assertEquals(List.of(1L), index.search("galaxi", 0.5, 10));
+        assertEquals(List.of(2L), index.search("iphome", 0.5, 10));
+    }
+
+    @Test
+    void dropsMatchesBelowTheMinimumSimilarity() {
+        index.put(1L, "galaxy");
+
+        // "galaxi" shares 4 of its 6 trigrams with "galaxy"
+        assertEquals(List.of(1L), index.search("galaxi", 0.6, 10));
+        assertEquals(List.of(), index.search("galaxi", 0.7, 10));
+    }
+
+    @Test
+    void ranksByQueryCoverageFirst() {
+        index.put(1L, "galaxy");
+        index.put(2L, "galaxy tab");
+
+        assertEquals(List.of(2L, 1L), index.search("galaxy tab", 0.5, 10));
+    }
+
+    @Test
+    void breaksCoverageTiesByClosestLength() {
+        index.put(1L, "galaxy s24 ultra");
+        index.put(2L, "galaxy");
+
+        assertEquals(List.of(2L, 1L), index.search("galaxy", 1.0, 10));
+    }
+
+    @Test
+    void returnsAtMostLimitMatches() {
+        for (long id = 1; id <= 5; id++) {
+            index.put(id, "galaxy " + id);
+        }
+
+        assertEquals(3, index.search("galaxy", 1.0, 3).size());
+        assertEquals(List.of(), index.search("galaxy", 1.0, 0));
+        assertEquals(List.of(), index.search("  ", 0.5, 10));
+    }
+
+    @Test
+    void matchesTheCurrentNameOnly() {
+        index.put(1L, "galaxy");
+        index.put(1L, "iphone");
+
+        assertEquals(List.of(), index.search("galaxy", 0.5, 10));
+        assertEquals(List.of(1L), index.search("iphone", 0.5, 10));
+
+        index.remove(1L);
+        assertEquals(List.of(), index.search("iphone", 0.5, 10));
+    }
+
+    @Test
+    void keepsLiveProductsThroughCompaction() {
+        for (long id = 1; id <= 2000; id++) {
+            index.put(id, "item" + id);
+        }
+        // enough updates to tombstone over a quarter of the ordinals
+        for (long id = 1; id <= 1000; id++) {
+            index.put(id, "renamed" + id);
+        }
+
+        assertEquals(List.of(42L), index.search("renamed42", 1.0, 10));
+        assertEquals(List.of(), index.search("item42", 1.0, 10));
+        assertEquals(List.of(1042L), index.search("item1042", 1.0, 10));
+    }
+
+    @Test
+    void searchesConcurrentlyWithMoreQueriesThanScratches() throws InterruptedException {
+        index.put(1L, "galaxy");
+        Queue<List<Long>> results = new ConcurrentLinkedQueue<>();
+        Thread[] threads = new Thread[8];
+        for (int i = 0; i < threads.length; i++) {
+            threads[i] = new Thread(() -> {
+                for (int k = 0; k < 200; k++) {
+                    results.add(index.search("galaxi", 0.5, 10));
+                }
+            });
+            threads[i].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(threads.length * 200, results.size());
+        for (List<Long> result : results) {
+            assertEquals(List.of(1L), result);
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.ecommerce.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class CsvReaderTests {
+
+    @Test
+    void readsRecordsEndingInCrlfLfOrNothing() throws IOException {
+        CsvReader reader = reader("name,price\r\nPhone,10\nCase,2");
+
+        assertEquals(List.of("name", "price"), reader.next());
+        assertEquals(List.of("Phone", "10"), reader.next());
+        assertEquals(List.of("Case", "2"), reader.next());
+        assertNull(reader.next());
+    }
+
+    @Test
+    void keepsEmptyFields() throws IOException {
+        CsvReader reader = reader(",a,,\n");
+
+        assertEquals(List.of("", "a", "", ""), reader.next());
+        assertNull(reader.next());
+    }
+
+    @Test
+    void unquotesFieldsWithCommasQuotesAndLineBreaks() throws IOException {
+        CsvReader reader = reader("\"Phone, 128GB\",\"the \"\"best\"\" one\",\"line one\r\nline two\"\n");
+
+        assertEquals(List.of("Phone, 128GB", "the \"best\" one", "line one\r\nline two"), reader.next());
+        assertNull(reader.next());
+    }
+
+    @Test
+    void keepsQuotesInsideUnquotedFields() throws IOException {
+        assertEquals(List.of("15\" laptop", "x"), reader("15\" laptop,x\n").next());
+    }
+
+    @Test
+    void reportsTheLineEachRecordStartsOn() throws IOException {
+        CsvReader reader = reader("a\n\"b\nc\"\r\nd\n");
+
+        reader.next();
+        assertEquals(1, reader.recordLine());
+        assertEquals(List.of("b\nc"), reader.next());
+        assertEquals(2, reader.recordLine());
+        reader.next();
+        assertEquals(4, reader.recordLine());
+    }
+
+    @Test
+    void rejectsAnUnterminatedQuotedField() throws IOException {
+        CsvReader reader = reader("a\n\"b,c\n");
+        reader.next();
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, reader::next);
+        assertEquals("Unterminated quoted field starting on line 2", e.getMessage());
+    }
+
+    private static CsvReader reader(String csv) {
+        return new CsvReader(new BufferedReader(new StringReader(csv)));
+    }
+}
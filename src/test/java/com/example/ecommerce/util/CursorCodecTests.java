@@ -0,0 +1,44 @@
+package com.example.ecommerce.util;
+
+import com.example.ecommerce.exception.excptions.BadRequestException;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class CursorCodecTests {
+
+    @Test
+    void decodesWhatItEncodes() {
+        String cursor = CursorCodec.encode("1299.99", "2024-05-01T10:15:30Z", "42");
+
+        assertArrayEquals(new String[]{"1299.99", "2024-05-01T10:15:30Z", "42"}, CursorCodec.decode(cursor, 3));
+    }
+
+    @Test
+    void keepsEmptyAndNonAsciiParts() {
+        String cursor = CursorCodec.encode("", "هاتف سامسونج", "");
+
+        assertArrayEquals(new String[]{"", "هاتف سامسونج", ""}, CursorCodec.decode(cursor, 3));
+    }
+
+    @Test
+    void producesUrlSafeTokens() {
+        String cursor = CursorCodec.encode("???>>>", "~~~");
+
+        assertFalse(cursor.contains("+") || cursor.contains("/") || cursor.contains("="), cursor);
+    }
+
+    @Test
+    void rejectsTheWrongNumberOfParts() {
+        String cursor = CursorCodec.encode("10.00", "42");
+
+        assertThrows(BadRequestException.class, () -> CursorCodec.decode(cursor, 3));
+    }
+
+    @Test
+    void rejectsTokensThatAreNotBase64() {
+        assertThrows(BadRequestException.class, () -> CursorCodec.decode("not a cursor!", 2));
+    }
+}
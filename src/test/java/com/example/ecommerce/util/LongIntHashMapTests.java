@@ -0,0 +1,107 @@
+package com.example.ecommerce.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LongIntHashMapTests {
+
+    @Test
+    void returnsTheMissingValueForAbsentKeys() {
+        LongIntHashMap map = new LongIntHashMap();
+
+        assertTrue(map.isEmpty());
+        assertFalse(map.containsKey(7));
+        assertEquals(-1, map.get(7, -1));
+    }
+
+    @Test
+    void overwritesWithoutGrowing() {
+        LongIntHashMap map = new LongIntHashMap();
+        map.put(7, 1);
+        map.put(7, 2);
+
+        assertEquals(1, map.size());
+        assertEquals(2, map.get(7, -1));
+    }
+
+    @Test
+    void keepsTheZeroKeyApartFromFreeSlots() {
+        LongIntHashMap map = new LongIntHashMap();
+        assertFalse(map.containsKey(0));
+
+        map.put(0, 0);
+        map.put(8, 3);
+
+        assertTrue(map.containsKey(0));
+        assertEquals(0, map.get(0, -1));
+        assertEquals(2, map.size());
+        assertArrayEquals(new long[]{0, 8}, sorted(map.keys()));
+    }
+
+    @Test
+    void addsToMissingKeysFromZero() {
+        LongIntHashMap map = new LongIntHashMap();
+
+        assertEquals(3, map.addTo(5, 3));
+        assertEquals(1, map.addTo(5, -2));
+        assertEquals(4, map.addTo(0, 4));
+        assertEquals(1, map.get(5, -1));
+    }
+
+    @Test
+    void growsPastItsInitialCapacity() {
+        LongIntHashMap map = new LongIntHashMap(2);
+        for (long id = 1; id <= 10_000; id++) {
+            map.put(id, (int) id * 2);
+        }
+
+        assertEquals(10_000, map.size());
+        for (long id = 1; id <= 10_000; id++) {
+            assertEquals((int) id * 2, map.get(id, -1));
+        }
+        assertEquals(10_000, map.keys().length);
+    }
+
+    @Test
+    void behavesLikeAHashMap() {
+        LongIntHashMap map = new LongIntHashMap();
+        Map<Long, Integer> expected = new HashMap<>();
+        Random random = new Random(42);
+
+        for (int i = 0; i < 50_000; i++) {
+            // a small key range forces collisions and updates; include negatives and extremes
+            long key = switch (random.nextInt(20)) {
+                case 0 -> Long.MIN_VALUE;
+                case 1 -> Long.MAX_VALUE;
+                case 2 -> 0;
+                default -> random.nextInt(4000) - 2000;
+            };
+            int value = random.nextInt();
+            if (random.nextBoolean()) {
+                map.put(key, value);
+                expected.put(key, value);
+            } else {
+                int sum = expected.merge(key, value, Integer::sum);
+                assertEquals(sum, map.addTo(key, value));
+            }
+        }
+
+        assertEquals(expected.size(), map.size());
+        expected.forEach((key, value) -> assertEquals(value.intValue(), map.get(key, 0)));
+        assertArrayEquals(expected.keySet().stream().mapToLong(Long::longValue).sorted().toArray(), sorted(map.keys()));
+    }
+
+    private static long[] sorted(long[] keys) {
+        Arrays.sort(keys);
+        return keys;
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.ecommerce.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class TextAnalyzerTests {
+
+    @Test
+    void splitsOnAnythingButLettersAndDigitsAndLowercases() {
+        assertEquals(List.of("samsung", "galaxy", "s24", "256gb"), TextAnalyzer.tokenize("Samsung Galaxy-S24, 256GB!"));
+    }
+
+    @Test
+    void blankTextHasNoTokens() {
+        assertEquals(List.of(), TextAnalyzer.tokenize(null));
+        assertEquals(List.of(), TextAnalyzer.tokenize("   "));
+        assertEquals(List.of(), TextAnalyzer.tokenize("--- !!"));
+    }
+
+    @Test
+    void dropsLatinAccents() {
+        assertEquals(List.of("cafe", "creme"), TextAnalyzer.tokenize("Café Crème"));
+    }
+
+    @Test
+    void foldsAlefAndHamzaVariants() {
+        assertEquals("احمد", TextAnalyzer.normalize("أحمد"));
+        assertEquals("اسلام", TextAnalyzer.normalize("إسلام"));
+        assertEquals("امن", TextAnalyzer.normalize("آمن"));
+        assertEquals("مسوول", TextAnalyzer.normalize("مسؤول"));
+        assertEquals("قاري", TextAnalyzer.normalize("قارئ"));
+    }
+
+    @Test
+    void foldsAlefMaqsuraAndTaaMarbuta() {
+        assertEquals("مستشفي", TextAnalyzer.normalize("مستشفى"));
+        assertEquals("مكتبه", TextAnalyzer.normalize("مكتبة"));
+    }
+
+    @Test
+    void dropsTashkeelAndTatweel() {
+        assertEquals("محمد", TextAnalyzer.normalize("مُحَمَّد"));
+        assertEquals("محمد", TextAnalyzer.normalize("مـحـمـد"));
+    }
+
+    @Test
+    void turnsArabicIndicDigitsIntoAsciiDigits() {
+        assertEquals(List.of("ايفون", "15"), TextAnalyzer.tokenize("آيفون ١٥"));
+    }
+
+    @Test
+    void differentSpellingsShareOneSearchKey() {
+        assertEquals(TextAnalyzer.searchKey("مكتبة أحمد"), TextAnalyzer.searchKey("  مكتبه   احمد "));
+        assertEquals("samsung galaxy s24", TextAnalyzer.searchKey("  Samsung   Galaxy\tS24 "));
+    }
+}